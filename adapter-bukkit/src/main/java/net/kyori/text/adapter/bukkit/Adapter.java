@@ -23,11 +23,72 @@
  */
 package net.kyori.text.adapter.bukkit;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import net.kyori.text.Component;
+import net.kyori.text.serializer.gson.GsonComponentSerializer;
 import org.bukkit.command.CommandSender;
 
-interface Adapter {
+/**
+ * A transport for sending text {@link Component}s to Bukkit viewers.
+ *
+ * <p>Additional adapters may be provided in two ways:</p>
+ * <ul>
+ *   <li>by registering an implementation with a public no-arg constructor as a
+ *   {@link java.util.ServiceLoader service}. Services are only looked up through the class loader
+ *   which loaded this interface, so they must be in the same jar as this library - usually the
+ *   plugin which shades it. Providers in other plugins are not found.</li>
+ *   <li>by calling {@link TextAdapter#registerAdapter(Adapter)}, which works from any plugin
+ *   that can see this interface.</li>
+ * </ul>
+ *
+ * <p>Adapters are tried in order of {@link #priority() priority}, each handling the viewers that
+ * the previous adapters could not.</p>
+ */
+public interface Adapter {
+  /**
+   * The priority of the Spigot adapter.
+   */
+  int SPIGOT_PRIORITY = 200;
+  /**
+   * The priority of the CraftBukkit adapter.
+   */
+  int CRAFTBUKKIT_PRIORITY = 100;
+  /**
+   * The priority of the legacy adapter, which is always tried last.
+   */
+  int LEGACY_PRIORITY = Integer.MIN_VALUE;
+
+  /**
+   * Checks if this adapter is able to send to viewers on this server.
+   *
+   * <p>Unavailable adapters are not used.</p>
+   *
+   * @return {@code true} if this adapter is available
+   */
+  default boolean available() {
+    return true;
+  }
+
+  /**
+   * Gets the priority of this adapter. Adapters with a higher priority are tried first.
+   *
+   * @return the priority
+   */
+  default int priority() {
+    return 0;
+  }
+
+  /**
+   * Gets the capabilities of this adapter.
+   *
+   * @return the capabilities
+   */
+  default Set<Capability> capabilities() {
+    return EnumSet.of(Capability.CHAT, Capability.ACTION_BAR);
+  }
+
   /**
    * Attempts to send the {@code component} to each sender in the given list, removing
    * viewers from the list if the adapter was able to successfully send the component.
@@ -45,4 +106,35 @@ interface Adapter {
    * @param component the component
    */
   void sendActionBar(final List<? extends CommandSender> viewers, final Component component);
+
+  /**
+   * Attempts to send the serialized component {@code json} to each sender in the given list, removing
+   * viewers from the list if the adapter was able to successfully send the component.
+   *
+   * @param viewers the viewers
+   * @param json the serialized component
+   */
+  default void sendJsonMessage(final List<? extends CommandSender> viewers, final String json) {
+    this.sendMessage(viewers, GsonComponentSerializer.INSTANCE.deserialize(json));
+  }
+
+  /**
+   * A capability of an adapter.
+   */
+  enum Capability {
+    /**
+     * The adapter can send chat messages.
+     */
+    CHAT,
+    /**
+     * The adapter can send action bar messages.
+     */
+    ACTION_BAR,
+    /**
+     * The adapter serializes a component once per broadcast, rather than once per viewer.
+     *
+     * <p>Batching adapters are preferred over other adapters of the same priority.</p>
+     */
+    BATCHING;
+  }
 }
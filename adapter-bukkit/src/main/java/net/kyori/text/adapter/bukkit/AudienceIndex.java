@@ -0,0 +1,236 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter.bukkit;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import net.kyori.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * An index of online players, grouped into {@link Audience audiences}.
+ *
+ * <p>Audiences are updated incrementally as players join, quit and change worlds, so that
+ * broadcasting to an audience does not require scanning every online player.</p>
+ *
+ * <p>There is no event for permission changes - {@link #refresh(Player)} should be called
+ * when a player's permissions change.</p>
+ */
+public final class AudienceIndex implements Listener {
+  private final List<Audience> audiences = new CopyOnWriteArrayList<>();
+  private final Map<String, Audience> worlds = new ConcurrentHashMap<>();
+  private final Map<String, Audience> permissions = new ConcurrentHashMap<>();
+
+  private AudienceIndex() {
+  }
+
+  /**
+   * Creates an audience index, which is kept up to date by listening to events on behalf of {@code plugin}.
+   *
+   * @param plugin the plugin
+   * @return the audience index
+   */
+  public static @NonNull AudienceIndex create(final @NonNull Plugin plugin) {
+    final AudienceIndex index = new AudienceIndex();
+    Bukkit.getPluginManager().registerEvents(index, plugin);
+    return index;
+  }
+
+  /**
+   * Gets the audience of players in {@code world}.
+   *
+   * @param world the world
+   * @return the audience
+   */
+  public @NonNull Audience world(final @NonNull World world) {
+    final String name = world.getName();
+    return this.worlds.computeIfAbsent(name, key -> this.audience(player -> player.getWorld().getName().equals(key)));
+  }
+
+  /**
+   * Gets the audience of players with {@code permission}.
+   *
+   * @param permission the permission
+   * @return the audience
+   */
+  public @NonNull Audience permission(final @NonNull String permission) {
+    return this.permissions.computeIfAbsent(permission, key -> this.audience(player -> player.hasPermission(key)));
+  }
+
+  /**
+   * Creates an audience of players matching {@code predicate}.
+   *
+   * <p>The predicate is only tested when a player joins, changes world or is {@link #refresh(Player) refreshed},
+   * so it must depend only on state which changes at those times.</p>
+   *
+   * <p>Every call creates a new audience, which is tested on every join, quit and world change until it
+   * is {@link #remove(Audience) removed}.</p>
+   *
+   * @param predicate the predicate
+   * @return the audience
+   */
+  public @NonNull Audience audience(final @NonNull Predicate<? super Player> predicate) {
+    final Audience audience = new Audience(predicate);
+    this.audiences.add(audience);
+    for(final Player player : Bukkit.getOnlinePlayers()) {
+      audience.update(player, true);
+    }
+    return audience;
+  }
+
+  /**
+   * Removes {@code audience} from this index.
+   *
+   * <p>The audience is no longer updated, and is left with no viewers.</p>
+   *
+   * @param audience the audience
+   */
+  public void remove(final @NonNull Audience audience) {
+    if(this.audiences.remove(audience)) {
+      this.worlds.values().remove(audience);
+      this.permissions.values().remove(audience);
+      audience.clear();
+    }
+  }
+
+  /**
+   * Re-tests membership of {@code player} in every audience.
+   *
+   * @param player the player
+   */
+  public void refresh(final @NonNull Player player) {
+    this.update(player, true);
+  }
+
+  /**
+   * Stops updating this index.
+   */
+  public void close() {
+    HandlerList.unregisterAll(this);
+    for(final Audience audience : this.audiences) {
+      audience.clear();
+    }
+    this.audiences.clear();
+    this.worlds.clear();
+    this.permissions.clear();
+  }
+
+  private void update(final Player player, final boolean online) {
+    for(final Audience audience : this.audiences) {
+      audience.update(player, online);
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void join(final PlayerJoinEvent event) {
+    this.update(event.getPlayer(), true);
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void changeWorld(final PlayerChangedWorldEvent event) {
+    this.update(event.getPlayer(), true);
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void quit(final PlayerQuitEvent event) {
+    this.update(event.getPlayer(), false);
+  }
+
+  /**
+   * A group of players, maintained by an {@link AudienceIndex}.
+   */
+  public static final class Audience {
+    private final Predicate<? super Player> predicate;
+    private final Set<Player> members = new LinkedHashSet<>();
+    private volatile List<Player> viewers = Collections.emptyList();
+
+    Audience(final Predicate<? super Player> predicate) {
+      this.predicate = predicate;
+    }
+
+    /**
+     * Gets the players in this audience.
+     *
+     * <p>The returned list is an immutable snapshot, which is shared until the audience changes.</p>
+     *
+     * @return the players
+     */
+    public @NonNull List<Player> viewers() {
+      return this.viewers;
+    }
+
+    /**
+     * Sends {@code component} to the players in this audience.
+     *
+     * @param component the component
+     */
+    public void sendMessage(final @NonNull Component component) {
+      TextAdapter.sendMessage(this.viewers, component);
+    }
+
+    /**
+     * Sends {@code component} to the action bar of the players in this audience.
+     *
+     * @param component the component
+     */
+    public void sendActionBar(final @NonNull Component component) {
+      TextAdapter.sendActionBar(this.viewers, component);
+    }
+
+    synchronized void clear() {
+      this.members.clear();
+      this.viewers = Collections.emptyList();
+    }
+
+    synchronized void update(final Player player, final boolean online) {
+      final boolean changed;
+      if(online && this.predicate.test(player)) {
+        changed = this.members.add(player);
+      } else {
+        changed = this.members.remove(player);
+      }
+      if(changed) {
+        this.viewers = Collections.unmodifiableList(Arrays.asList(this.members.toArray(new Player[0])));
+      }
+    }
+  }
+}
@@ -0,0 +1,299 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter.bukkit;
+
+import com.google.common.collect.MapMaker;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import net.kyori.text.Component;
+import net.kyori.text.adapter.MessagePriority;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Records the last chat messages sent to each player, so that a message can be redacted
+ * by clearing the player's chat and replaying the rest.
+ *
+ * <p>Messages are stored in their serialized form, in a fixed-size off-heap ring buffer
+ * per player, so replaying does not serialize any components. The oldest messages are
+ * evicted once a player's buffer or message limit is full.</p>
+ */
+public final class ChatHistory {
+  private static final String CLEAR = clear(100);
+  private static volatile ChatHistory installed;
+  private final int messages;
+  private final int bytesPerPlayer;
+  private final AtomicLong ids = new AtomicLong();
+  private final Map<Player, Ring> rings = new MapMaker().weakKeys().makeMap();
+
+  private ChatHistory(final int messages, final int bytesPerPlayer) {
+    this.messages = messages;
+    this.bytesPerPlayer = bytesPerPlayer;
+  }
+
+  /**
+   * Creates a chat history.
+   *
+   * @param messages the maximum number of messages to record per player
+   * @param bytesPerPlayer the size of the buffer allocated for each player, in bytes
+   * @return the chat history
+   */
+  public static @NonNull ChatHistory create(final int messages, final int bytesPerPlayer) {
+    if(messages <= 0 || bytesPerPlayer <= 0) {
+      throw new IllegalArgumentException("messages and bytesPerPlayer must be positive");
+    }
+    return new ChatHistory(messages, bytesPerPlayer);
+  }
+
+  /**
+   * Installs {@code history}, so that chat messages sent through {@link TextAdapter} are recorded to it.
+   *
+   * <p>While a history is installed, chat messages are serialized once and sent as json. On servers
+   * without Spigot the server then parses that json, where the message would otherwise have been
+   * built into the server's components directly.</p>
+   *
+   * @param history the history, or {@code null} to stop recording
+   */
+  public static void install(final @Nullable ChatHistory history) {
+    installed = history;
+  }
+
+  static @Nullable ChatHistory installed() {
+    return installed;
+  }
+
+  /**
+   * Sends {@code component} to the given {@code viewers}, and records it to this history.
+   *
+   * <p>A message deferred by {@link SendAccounting} is recorded once it is sent, under the returned id.</p>
+   *
+   * @param viewers the viewers to send the component to
+   * @param component the component
+   * @return the id of the message, which may be passed to {@link #redact(long)}
+   */
+  public long sendMessage(final @NonNull Iterable<? extends CommandSender> viewers, final @NonNull Component component) {
+    return TextAdapter0.sendComponent(viewers, component, false, MessagePriority.NORMAL, this);
+  }
+
+  /**
+   * Removes the message with the given {@code id}, and replays the history of every player who received it.
+   *
+   * @param id the message id
+   * @return {@code true} if any player had received the message
+   */
+  public boolean redact(final long id) {
+    final List<Player> players = new ArrayList<>();
+    for(final Map.Entry<Player, Ring> entry : this.rings.entrySet()) {
+      if(entry.getValue().redact(id)) {
+        players.add(entry.getKey());
+      }
+    }
+    if(players.isEmpty()) {
+      return false;
+    }
+    this.replay(players);
+    return true;
+  }
+
+  /**
+   * Clears the chat of {@code player}, and resends the messages recorded for them.
+   *
+   * @param player the player
+   */
+  public void replay(final @NonNull Player player) {
+    this.replay(Collections.singletonList(player));
+  }
+
+  /*
+   * Replayed messages are sent as json. On servers without Spigot the server parses each one, so the
+   * players are replayed together: each message is sent once to every player with the same message at
+   * the same position in their history, and parsed once for all of them.
+   */
+  private void replay(final List<Player> players) {
+    final List<List<String>> histories = new ArrayList<>(players.size());
+    for(final Player player : players) {
+      final Ring ring = this.rings.get(player);
+      histories.add(ring == null ? Collections.emptyList() : ring.messages());
+    }
+    TextAdapter0.deliverJson(new ArrayList<CommandSender>(players), CLEAR);
+    for(int position = 0; ; position++) {
+      final Map<String, List<CommandSender>> messages = new LinkedHashMap<>();
+      for(int i = 0; i < histories.size(); i++) {
+        final List<String> history = histories.get(i);
+        if(position < history.size()) {
+          messages.computeIfAbsent(history.get(position), json -> new ArrayList<>()).add(players.get(i));
+        }
+      }
+      if(messages.isEmpty()) {
+        return;
+      }
+      for(final Map.Entry<String, List<CommandSender>> message : messages.entrySet()) {
+        TextAdapter0.deliverJson(message.getValue(), message.getKey());
+      }
+    }
+  }
+
+  /**
+   * Discards the messages recorded for {@code player}, releasing their buffer.
+   *
+   * @param player the player
+   */
+  public void forget(final @NonNull Player player) {
+    this.rings.remove(player);
+  }
+
+  /*
+   * Ids are taken before a message is sent, so a deferred message keeps its id until it is recorded.
+   */
+  long nextId() {
+    return this.ids.incrementAndGet();
+  }
+
+  /*
+   * A message sent in several parts is recorded with the same id for each part.
+   */
+  void record(final long id, final List<? extends CommandSender> viewers, final String... json) {
+    final byte[][] bytes = new byte[json.length][];
+    for(int i = 0; i < json.length; i++) {
+      bytes[i] = json[i].getBytes(StandardCharsets.UTF_8);
+    }
+    for(final CommandSender viewer : viewers) {
+      if(viewer instanceof Player) {
+        final Ring ring = this.rings.computeIfAbsent((Player) viewer, player -> new Ring(this.messages, this.bytesPerPlayer));
+        for(final byte[] part : bytes) {
+          ring.add(id, part);
+        }
+      }
+    }
+  }
+
+  private static String clear(final int lines) {
+    final StringBuilder sb = new StringBuilder("{\"text\":\"");
+    for(int i = 0; i < lines; i++) {
+      sb.append("\\n");
+    }
+    return sb.append("\"}").toString();
+  }
+
+  /*
+   * Messages are stored contiguously in a direct buffer, wrapping to the start when they do not fit at the end.
+   */
+  static final class Ring {
+    private final ByteBuffer buffer;
+    private final long[] ids;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final boolean[] redacted;
+    private int head; // index of the oldest message
+    private int size;
+    private int position;
+
+    Ring(final int messages, final int bytes) {
+      this.buffer = ByteBuffer.allocateDirect(bytes);
+      this.ids = new long[messages];
+      this.offsets = new int[messages];
+      this.lengths = new int[messages];
+      this.redacted = new boolean[messages];
+    }
+
+    synchronized void add(final long id, final byte[] bytes) {
+      if(bytes.length > this.buffer.capacity()) {
+        return; // can never fit
+      }
+      if(this.position + bytes.length > this.buffer.capacity()) {
+        this.position = 0;
+      }
+      while(this.size > 0 && (this.size == this.ids.length || this.overlaps(this.position, bytes.length))) {
+        this.head = (this.head + 1) % this.ids.length;
+        this.size--;
+      }
+      final int index = (this.head + this.size) % this.ids.length;
+      this.ids[index] = id;
+      this.offsets[index] = this.position;
+      this.lengths[index] = bytes.length;
+      this.redacted[index] = false;
+      final ByteBuffer buffer = this.buffer.duplicate();
+      buffer.position(this.position);
+      buffer.put(bytes);
+      this.position += bytes.length;
+      this.size++;
+    }
+
+    private boolean overlaps(final int offset, final int length) {
+      for(int i = 0; i < this.size; i++) {
+        final int index = (this.head + i) % this.ids.length;
+        if(this.offsets[index] < offset + length && offset < this.offsets[index] + this.lengths[index]) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    synchronized boolean redact(final long id) {
+      boolean redacted = false;
+      for(int i = 0; i < this.size; i++) {
+        final int index = (this.head + i) % this.ids.length;
+        if(this.ids[index] == id && !this.redacted[index]) {
+          this.redacted[index] = true;
+          redacted = true;
+        }
+      }
+      return redacted;
+    }
+
+    synchronized List<String> messages() {
+      if(this.size == 0) {
+        return Collections.emptyList();
+      }
+      int longest = 0;
+      for(int i = 0; i < this.size; i++) {
+        final int index = (this.head + i) % this.ids.length;
+        if(!this.redacted[index]) {
+          longest = Math.max(longest, this.lengths[index]);
+        }
+      }
+      final List<String> messages = new ArrayList<>(this.size);
+      // only as large as the longest message, rather than the whole buffer
+      final byte[] bytes = new byte[longest];
+      for(int i = 0; i < this.size; i++) {
+        final int index = (this.head + i) % this.ids.length;
+        if(!this.redacted[index]) {
+          final ByteBuffer buffer = this.buffer.duplicate();
+          buffer.position(this.offsets[index]);
+          buffer.get(bytes, 0, this.lengths[index]);
+          messages.add(new String(bytes, 0, this.lengths[index], StandardCharsets.UTF_8));
+        }
+      }
+      return messages;
+    }
+  }
+}
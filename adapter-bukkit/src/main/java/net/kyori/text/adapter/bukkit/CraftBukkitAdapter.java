@@ -25,28 +25,47 @@ package net.kyori.text.adapter.bukkit;
 
 import com.google.gson.JsonDeserializer;
 import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import net.kyori.text.TranslatableComponent;
+import net.kyori.text.adapter.Backpressure;
+import net.kyori.text.adapter.MessagePriority;
+import net.kyori.text.adapter.SendPipeline;
+import net.kyori.text.event.ClickEvent;
+import net.kyori.text.event.HoverEvent;
+import net.kyori.text.format.TextColor;
+import net.kyori.text.format.TextDecoration;
 import net.kyori.text.serializer.gson.GsonComponentSerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
 
 import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
-import java.util.Iterator;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 
 final class CraftBukkitAdapter implements Adapter {
-  private static final Binding REFLECTION_BINDINGS = load();
-  private static final boolean ALIVE = REFLECTION_BINDINGS.valid();
+  // published without a lock, so threads sending their first message never block on class initialization
+  private static final Lazy<Binding> REFLECTION_BINDINGS = Lazy.idempotent(CraftBukkitAdapter::load);
+  private static final Lazy<BookBinding> BOOK_BINDING = Lazy.idempotent(BookBinding::load);
+  private static final Lazy<Optional<SidebarPackets>> SIDEBAR_PACKETS = Lazy.idempotent(() -> Optional.ofNullable(SidebarPackets.load()));
 
   private static Binding load() {
     try {
@@ -104,7 +123,21 @@ final class CraftBukkitAdapter implements Adapter {
         .filter(m -> m.getParameterCount() == 1 && m.getParameterTypes()[0].equals(String.class))
         .min(Comparator.comparing(Method::getName)) // prefer the #a method
         .orElseThrow(() -> new RuntimeException("Unable to find serialize method"));
-      return new AliveBinding(playerHandle, playerConnectionField, sendPacket, chatPacketConstructor, titlePacketClassAction, titlePacketConstructor, serializeMethod);
+      final Field networkManagerField = optionalField(playerConnectionClass, "NetworkManager");
+      final Field channelField = networkManagerField == null ? null : optionalField(networkManagerField.getType(), "Channel");
+      final TreeBuilder treeBuilder = TreeBuilder.load(serverVersion, baseComponentClass);
+      final Class<?> playerListPacketClass = optionalMinecraftClass(serverVersion, "PacketPlayOutPlayerListHeaderFooter");
+      Constructor<?> playerListPacketConstructor = null;
+      Field[] playerListFields = null;
+      if(playerListPacketClass != null) {
+        try {
+          playerListPacketConstructor = playerListPacketClass.getConstructor();
+          playerListFields = new Field[]{declaredField(playerListPacketClass, baseComponentClass, 0), declaredField(playerListPacketClass, baseComponentClass, 1)};
+        } catch(final NoSuchMethodException | NoSuchFieldException e) {
+          playerListPacketConstructor = null;
+        }
+      }
+      return new AliveBinding(playerHandle, playerConnectionField, sendPacket, chatPacketConstructor, titlePacketClassAction, titlePacketConstructor, serializeMethod, networkManagerField, channelField, treeBuilder, playerListPacketConstructor, playerListFields);
     } catch(final Throwable e) {
       return new DeadBinding();
     }
@@ -140,39 +173,178 @@ final class CraftBukkitAdapter implements Adapter {
     }
   }
 
+  private static Field optionalField(final Class<?> klass, final String typeName) {
+    for(final Field field : klass.getFields()) {
+      if(field.getType().getSimpleName().equals(typeName)) {
+        return field;
+      }
+    }
+    return null;
+  }
+
+  /*
+   * Finds the index-th non-static field of type, in declaration order.
+   */
+  private static Field declaredField(final Class<?> klass, final Class<?> type, final int index) throws NoSuchFieldException {
+    int found = 0;
+    for(final Field field : klass.getDeclaredFields()) {
+      if(!Modifier.isStatic(field.getModifiers()) && field.getType() == type && found++ == index) {
+        field.setAccessible(true);
+        return field;
+      }
+    }
+    throw new NoSuchFieldException(type.getSimpleName() + " #" + index + " in " + klass.getName());
+  }
+
+  /**
+   * Checks if a message of {@code priority} should be sent to {@code player}, given the state of their connection.
+   *
+   * @param player the player
+   * @param priority the priority
+   * @return {@code true} if the message should be sent
+   */
+  static boolean accepts(final Player player, final MessagePriority priority) {
+    if(!alive()) {
+      return true;
+    }
+    return Backpressure.accept(binding().channel(player), priority);
+  }
+
+  /**
+   * Checks if the server supports the player list header and footer packet.
+   *
+   * @return {@code true} if the packet is supported
+   */
+  static boolean playerListSupported() {
+    return alive() && binding().canMakePlayerList();
+  }
+
+  /**
+   * Creates a packet which sets the header and footer of the player list.
+   *
+   * @param header the header
+   * @param footer the footer
+   * @return the packet
+   */
+  static Object createPlayerListPacket(final Component header, final Component footer) {
+    return binding().createPlayerListPacket(header, footer);
+  }
+
+  /**
+   * Sends {@code packet} to {@code player}, through the {@link SendPipeline}.
+   *
+   * <p>The player's connection is resolved on the calling thread, so a player who cannot be sent to
+   * throws here and is left to the next adapter. Only the write to the connection is dispatched.</p>
+   *
+   * @param packet the packet
+   * @param player the player
+   */
+  static void sendPacket(final Object packet, final Player player) {
+    final Binding binding = binding();
+    final Object connection = binding.connection(player);
+    if(SendPipeline.executor() == null) {
+      // written directly, without capturing a write for each viewer
+      binding.write(packet, connection);
+    } else {
+      SendPipeline.dispatch(player, () -> binding.write(packet, connection));
+    }
+  }
+
+  /**
+   * Sets the pages of {@code meta} directly from components, without converting them to legacy text.
+   *
+   * @param meta the book meta
+   * @param pages the pages
+   * @return {@code true} if the pages were set
+   */
+  static boolean setBookPages(final ItemMeta meta, final List<Component> pages) {
+    return alive() && BOOK_BINDING.get().setPages(meta, pages);
+  }
+
+  /**
+   * Copies {@code item} into a server item stack, so the item is not encoded again each time it is used.
+   *
+   * @param item the item
+   * @return the server item stack, or {@code item} if it could not be copied
+   */
+  static ItemStack encodeItem(final ItemStack item) {
+    return alive() ? BOOK_BINDING.get().encode(item) : item;
+  }
+
+  /**
+   * Gets the packets used to render sidebars, or {@code null} if the server's scoreboard packets are not supported.
+   *
+   * @return the sidebar packets
+   */
+  static SidebarPackets sidebarPackets() {
+    return SIDEBAR_PACKETS.get().orElse(null);
+  }
+
+  private static Binding binding() {
+    return REFLECTION_BINDINGS.get();
+  }
+
+  private static boolean alive() {
+    return binding().valid();
+  }
+
+  @Override
+  public boolean available() {
+    return alive();
+  }
+
+  @Override
+  public int priority() {
+    return CRAFTBUKKIT_PRIORITY;
+  }
+
+  @Override
+  public Set<Capability> capabilities() {
+    return EnumSet.of(Capability.CHAT, Capability.ACTION_BAR, Capability.BATCHING);
+  }
+
   @Override
   public void sendMessage(final List<? extends CommandSender> viewers, final Component component) {
-    if(!ALIVE) {
+    if(!alive()) {
       return;
     }
-    send(viewers, component, REFLECTION_BINDINGS::createMessagePacket);
+    send(viewers, component, binding()::createMessagePacket);
   }
 
   @Override
   public void sendActionBar(final List<? extends CommandSender> viewers, final Component component) {
-    if(!ALIVE) {
+    if(!alive()) {
       return;
     }
-    send(viewers, component, REFLECTION_BINDINGS::createActionBarPacket);
+    send(viewers, component, binding()::createActionBarPacket);
   }
 
-  private static void send(final List<? extends CommandSender> viewers, final Component component, final Function<Component, Object> function) {
-    Object packet = null;
-    for(final Iterator<? extends CommandSender> iterator = viewers.iterator(); iterator.hasNext(); ) {
-      final CommandSender sender = iterator.next();
+  @Override
+  public void sendJsonMessage(final List<? extends CommandSender> viewers, final String json) {
+    if(!alive()) {
+      return;
+    }
+    send(viewers, json, binding()::createMessagePacket);
+  }
+
+  private static <T> void send(final List<? extends CommandSender> viewers, final T message, final Function<T, Object> function) {
+    // the packet is created lazily, as there may be no players in the list
+    final Object[] packet = new Object[1];
+    viewers.removeIf(sender -> {
       if(sender instanceof Player) {
         try {
           final Player player = (Player) sender;
-          if(packet == null) {
-            packet = function.apply(component);
+          if(packet[0] == null) {
+            packet[0] = function.apply(message);
           }
-          REFLECTION_BINDINGS.sendPacket(packet, player);
-          iterator.remove();
+          sendPacket(packet[0], player);
+          return true;
         } catch(final Exception e) {
           e.printStackTrace();
         }
       }
-    }
+      return false;
+    });
   }
 
   private static abstract class Binding {
@@ -180,9 +352,25 @@ final class CraftBukkitAdapter implements Adapter {
 
     abstract Object createMessagePacket(final Component component);
 
+    abstract Object createMessagePacket(final String json);
+
     abstract Object createActionBarPacket(final Component component);
 
-    abstract void sendPacket(final Object packet, final Player player);
+    abstract Object createComponent(final Component component);
+
+    abstract boolean canMakePlayerList();
+
+    abstract Object createPlayerListPacket(final Component header, final Component footer);
+
+    void sendPacket(final Object packet, final Player player) {
+      this.write(packet, this.connection(player));
+    }
+
+    abstract Object connection(final Player player);
+
+    abstract void write(final Object packet, final Object connection);
+
+    abstract Object channel(final Player player);
   }
 
   private static final class DeadBinding extends Binding {
@@ -196,13 +384,43 @@ final class CraftBukkitAdapter implements Adapter {
       throw new UnsupportedOperationException();
     }
 
+    @Override
+    Object createMessagePacket(final String json) {
+      throw new UnsupportedOperationException();
+    }
+
     @Override
     Object createActionBarPacket(final Component component) {
       throw new UnsupportedOperationException();
     }
 
     @Override
-    void sendPacket(final Object packet, final Player player) {
+    Object createComponent(final Component component) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    boolean canMakePlayerList() {
+      return false;
+    }
+
+    @Override
+    Object createPlayerListPacket(final Component header, final Component footer) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    Object connection(final Player player) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    void write(final Object packet, final Object connection) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    Object channel(final Player player) {
       throw new UnsupportedOperationException();
     }
   }
@@ -216,8 +434,13 @@ final class CraftBukkitAdapter implements Adapter {
     private final Constructor<?> titlePacketConstructor;
     private final boolean canMakeTitle;
     private final Method serializeMethod;
+    private final Field networkManagerField;
+    private final Field channelField;
+    private final TreeBuilder treeBuilder;
+    private final Constructor<?> playerListPacketConstructor;
+    private final Field[] playerListFields;
 
-    AliveBinding(final Function<Player, Object> playerHandleFunction, final Field playerConnectionField, final BiConsumer<Object, Object> sendPacketFunction, final Constructor<?> chatPacketConstructor, final Class<? extends Enum> titlePacketClassAction, final Constructor<?> titlePacketConstructor, final Method serializeMethod) {
+    AliveBinding(final Function<Player, Object> playerHandleFunction, final Field playerConnectionField, final BiConsumer<Object, Object> sendPacketFunction, final Constructor<?> chatPacketConstructor, final Class<? extends Enum> titlePacketClassAction, final Constructor<?> titlePacketConstructor, final Method serializeMethod, final Field networkManagerField, final Field channelField, final TreeBuilder treeBuilder, final Constructor<?> playerListPacketConstructor, final Field[] playerListFields) {
       this.playerHandleFunction = playerHandleFunction;
       this.playerConnectionField = playerConnectionField;
       this.sendPacketFunction = sendPacketFunction;
@@ -226,6 +449,11 @@ final class CraftBukkitAdapter implements Adapter {
       this.titlePacketConstructor = titlePacketConstructor;
       this.canMakeTitle = this.titlePacketClassAction != null && this.titlePacketConstructor != null;
       this.serializeMethod = serializeMethod;
+      this.networkManagerField = networkManagerField;
+      this.channelField = channelField;
+      this.treeBuilder = treeBuilder;
+      this.playerListPacketConstructor = playerListPacketConstructor;
+      this.playerListFields = playerListFields;
     }
 
     @Override
@@ -235,7 +463,25 @@ final class CraftBukkitAdapter implements Adapter {
 
     @Override
     Object createMessagePacket(final Component component) {
-      final String json = GsonComponentSerializer.INSTANCE.serialize(component);
+      try {
+        return this.chatPacketConstructor.newInstance(this.toMinecraft(component));
+      } catch(final Exception e) {
+        throw new UnsupportedOperationException("An exception was encountered while creating a packet for a component", e);
+      }
+    }
+
+    private Object toMinecraft(final Component component) throws ReflectiveOperationException {
+      if(this.treeBuilder != null) {
+        final Object minecraft = this.treeBuilder.build(component);
+        if(minecraft != null) {
+          return minecraft;
+        }
+      }
+      return this.serializeMethod.invoke(null, GsonComponentSerializer.INSTANCE.serialize(component));
+    }
+
+    @Override
+    Object createMessagePacket(final String json) {
       try {
         return this.chatPacketConstructor.newInstance(this.serializeMethod.invoke(null, json));
       } catch(final Exception e) {
@@ -253,8 +499,7 @@ final class CraftBukkitAdapter implements Adapter {
           } catch(final IllegalArgumentException e) {
             constant = this.titlePacketClassAction.getEnumConstants()[2];
           }
-          final String json = GsonComponentSerializer.INSTANCE.serialize(component);
-          return this.titlePacketConstructor.newInstance(constant, this.serializeMethod.invoke(null, json));
+          return this.titlePacketConstructor.newInstance(constant, this.toMinecraft(component));
         } catch(final Exception e) {
           throw new UnsupportedOperationException("An exception was encountered while creating a packet for a component", e);
         }
@@ -264,13 +509,427 @@ final class CraftBukkitAdapter implements Adapter {
     }
 
     @Override
-    void sendPacket(final Object packet, final Player player) {
+    Object createComponent(final Component component) {
+      try {
+        return this.toMinecraft(component);
+      } catch(final Exception e) {
+        throw new UnsupportedOperationException("An exception was encountered while creating a component", e);
+      }
+    }
+
+    @Override
+    boolean canMakePlayerList() {
+      return this.playerListPacketConstructor != null;
+    }
+
+    @Override
+    Object createPlayerListPacket(final Component header, final Component footer) {
+      if(this.playerListPacketConstructor == null) {
+        throw new UnsupportedOperationException("The player list header and footer packet is not supported");
+      }
+      try {
+        final Object packet = this.playerListPacketConstructor.newInstance();
+        this.playerListFields[0].set(packet, this.toMinecraft(header));
+        this.playerListFields[1].set(packet, this.toMinecraft(footer));
+        return packet;
+      } catch(final Exception e) {
+        throw new UnsupportedOperationException("An exception was encountered while creating a packet for a component", e);
+      }
+    }
+
+    @Override
+    Object connection(final Player player) {
+      final Object connection;
+      try {
+        connection = this.playerConnectionField.get(this.playerHandleFunction.apply(player));
+      } catch(final Exception e) {
+        throw new UnsupportedOperationException("An exception was encountered while sending a packet for a component", e);
+      }
+      if(connection == null) {
+        throw new UnsupportedOperationException("The player has no connection");
+      }
+      return connection;
+    }
+
+    @Override
+    void write(final Object packet, final Object connection) {
       try {
-          Object entityPlayer = this.playerHandleFunction.apply(player);
-          this.sendPacketFunction.accept(this.playerConnectionField.get(entityPlayer), packet);
+        this.sendPacketFunction.accept(connection, packet);
       } catch(final Exception e) {
         throw new UnsupportedOperationException("An exception was encountered while sending a packet for a component", e);
       }
     }
+
+    @Override
+    Object channel(final Player player) {
+      if(this.channelField == null) {
+        return null;
+      }
+      try {
+        final Object connection = this.playerConnectionField.get(this.playerHandleFunction.apply(player));
+        return connection == null ? null : this.channelField.get(this.networkManagerField.get(connection));
+      } catch(final Exception e) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Sets book pages and encodes items through CraftBukkit.
+   */
+  private static final class BookBinding {
+    private final Field pagesField;
+    private final boolean jsonPages;
+    private final Method asCraftCopy;
+
+    private BookBinding(final Field pagesField, final boolean jsonPages, final Method asCraftCopy) {
+      this.pagesField = pagesField;
+      this.jsonPages = jsonPages;
+      this.asCraftCopy = asCraftCopy;
+    }
+
+    /*
+     * Unsupported parts of the binding are left null.
+     */
+    static BookBinding load() {
+      String serverVersion = null;
+      Field pagesField = null;
+      boolean jsonPages = false;
+      Method asCraftCopy = null;
+      try {
+        serverVersion = maybeVersion(Bukkit.getServer().getClass().getPackage().getName().substring("org.bukkit.craftbukkit".length()));
+        pagesField = craftBukkitClass(serverVersion, "inventory.CraftMetaBook").getDeclaredField("pages");
+        pagesField.setAccessible(true);
+        // a list of components until 1.16, and a list of json strings after
+        final Type type = pagesField.getGenericType();
+        if(!List.class.isAssignableFrom(pagesField.getType()) || !(type instanceof ParameterizedType)) {
+          pagesField = null;
+        } else {
+          jsonPages = ((ParameterizedType) type).getActualTypeArguments()[0] == String.class;
+        }
+      } catch(final Exception e) {
+        pagesField = null;
+      }
+      try {
+        if(serverVersion != null) {
+          asCraftCopy = craftBukkitClass(serverVersion, "inventory.CraftItemStack").getMethod("asCraftCopy", ItemStack.class);
+        }
+      } catch(final Exception e) {
+        asCraftCopy = null;
+      }
+      return new BookBinding(pagesField, jsonPages, asCraftCopy);
+    }
+
+    @SuppressWarnings("unchecked")
+    boolean setPages(final ItemMeta meta, final List<Component> pages) {
+      if(this.pagesField == null || !this.pagesField.getDeclaringClass().isInstance(meta)) {
+        return false;
+      }
+      try {
+        final List<Object> list = (List<Object>) this.pagesField.get(meta);
+        list.clear();
+        for(final Component page : pages) {
+          list.add(this.jsonPages ? GsonComponentSerializer.INSTANCE.serialize(page) : binding().createComponent(page));
+        }
+        return true;
+      } catch(final Exception e) {
+        return false;
+      }
+    }
+
+    ItemStack encode(final ItemStack item) {
+      if(this.asCraftCopy == null) {
+        return item;
+      }
+      try {
+        return (ItemStack) this.asCraftCopy.invoke(null, item);
+      } catch(final Exception e) {
+        return item;
+      }
+    }
+  }
+
+  /**
+   * Creates the scoreboard packets used to render sidebars.
+   *
+   * <p>Requires the scoreboard packets of 1.13 and later, where team prefixes are components.</p>
+   */
+  static final class SidebarPackets {
+    private static final int SIDEBAR_SLOT = 1;
+    private final Constructor<?> objectiveConstructor;
+    private final Field objectiveName;
+    private final Field objectiveDisplayName;
+    private final Field objectiveRenderType;
+    private final Field objectiveMode;
+    private final Object integerRenderType;
+    private final Constructor<?> displayConstructor;
+    private final Field displaySlot;
+    private final Field displayName;
+    private final Constructor<?> teamConstructor;
+    private final Field teamName;
+    private final Field teamPrefix;
+    private final Field teamPlayers;
+    private final Field teamMode;
+    private final Constructor<?> scoreConstructor;
+    private final Object changeAction;
+    private final Object removeAction;
+
+    private SidebarPackets(final Class<?> objectiveClass, final Class<?> displayClass, final Class<?> teamClass, final Class<?> scoreClass, final Class<?> actionClass, final Class<?> baseComponentClass) throws ReflectiveOperationException {
+      this.objectiveConstructor = objectiveClass.getConstructor();
+      this.objectiveName = declaredField(objectiveClass, String.class, 0);
+      this.objectiveDisplayName = declaredField(objectiveClass, baseComponentClass, 0);
+      this.objectiveMode = declaredField(objectiveClass, int.class, 0);
+      Field renderType = null;
+      for(final Field field : objectiveClass.getDeclaredFields()) {
+        if(field.getType().isEnum()) {
+          renderType = field;
+          renderType.setAccessible(true);
+        }
+      }
+      if(renderType == null) {
+        throw new NoSuchFieldException("render type");
+      }
+      this.objectiveRenderType = renderType;
+      this.integerRenderType = constant(renderType.getType(), "INTEGER");
+      this.displayConstructor = displayClass.getConstructor();
+      this.displaySlot = declaredField(displayClass, int.class, 0);
+      this.displayName = declaredField(displayClass, String.class, 0);
+      this.teamConstructor = teamClass.getConstructor();
+      this.teamName = declaredField(teamClass, String.class, 0);
+      // display name, prefix, suffix
+      this.teamPrefix = declaredField(teamClass, baseComponentClass, 1);
+      this.teamPlayers = declaredField(teamClass, Collection.class, 0);
+      this.teamMode = declaredField(teamClass, int.class, 0);
+      this.scoreConstructor = scoreClass.getConstructor(actionClass, String.class, String.class, int.class);
+      this.changeAction = constant(actionClass, "CHANGE");
+      this.removeAction = constant(actionClass, "REMOVE");
+    }
+
+    /*
+     * Returns null if the server's scoreboard packets are not of the expected shape.
+     */
+    static SidebarPackets load() {
+      if(!alive()) {
+        return null;
+      }
+      try {
+        final Class<?> server = Bukkit.getServer().getClass();
+        final String serverVersion = maybeVersion(server.getPackage().getName().substring("org.bukkit.craftbukkit".length()));
+        return new SidebarPackets(
+          minecraftClass(serverVersion, "PacketPlayOutScoreboardObjective"),
+          minecraftClass(serverVersion, "PacketPlayOutScoreboardDisplayObjective"),
+          minecraftClass(serverVersion, "PacketPlayOutScoreboardTeam"),
+          minecraftClass(serverVersion, "PacketPlayOutScoreboardScore"),
+          minecraftClass(serverVersion, "ScoreboardServer$Action"),
+          minecraftClass(serverVersion, "IChatBaseComponent")
+        );
+      } catch(final Throwable e) {
+        return null;
+      }
+    }
+
+    private static Object constant(final Class<?> enumClass, final String name) throws NoSuchFieldException {
+      for(final Object constant : enumClass.getEnumConstants()) {
+        if(((Enum<?>) constant).name().equals(name)) {
+          return constant;
+        }
+      }
+      throw new NoSuchFieldException(name + " in " + enumClass.getName());
+    }
+
+    Object objective(final String name, final Component title, final int mode) throws ReflectiveOperationException {
+      final Object packet = this.objectiveConstructor.newInstance();
+      this.objectiveName.set(packet, name);
+      this.objectiveDisplayName.set(packet, binding().createComponent(title));
+      this.objectiveRenderType.set(packet, this.integerRenderType);
+      this.objectiveMode.set(packet, mode);
+      return packet;
+    }
+
+    Object display(final String name) throws ReflectiveOperationException {
+      final Object packet = this.displayConstructor.newInstance();
+      this.displaySlot.set(packet, SIDEBAR_SLOT);
+      this.displayName.set(packet, name);
+      return packet;
+    }
+
+    @SuppressWarnings("unchecked")
+    Object team(final String name, final int mode, final Component prefix, final String entry) throws ReflectiveOperationException {
+      final Object packet = this.teamConstructor.newInstance();
+      this.teamName.set(packet, name);
+      this.teamMode.set(packet, mode);
+      if(prefix != null) {
+        this.teamPrefix.set(packet, binding().createComponent(prefix));
+      }
+      if(entry != null) {
+        ((Collection<String>) this.teamPlayers.get(packet)).add(entry);
+      }
+      return packet;
+    }
+
+    Object score(final String objective, final String entry, final int score, final boolean remove) throws ReflectiveOperationException {
+      return this.scoreConstructor.newInstance(remove ? this.removeAction : this.changeAction, objective, entry, score);
+    }
+
+    void send(final Object packet, final Player player) {
+      binding().sendPacket(packet, player);
+    }
+  }
+
+  /**
+   * Builds Minecraft components directly from text components, without serializing them to json
+   * for the server to parse.
+   */
+  private static final class TreeBuilder {
+    private final MethodHandle textConstructor;
+    private final MethodHandle translatableConstructor;
+    private final MethodHandle addSibling;
+    private final MethodHandle setModifier;
+    private final MethodHandle modifierConstructor;
+    private final MethodHandle setColor;
+    private final MethodHandle[] setDecorations;
+    private final MethodHandle setClickEvent;
+    private final MethodHandle setHoverEvent;
+    private final MethodHandle setInsertion;
+    private final MethodHandle clickEventConstructor;
+    private final MethodHandle hoverEventConstructor;
+    private final Object[] colors;
+    private final Object[] clickActions;
+    private final Object[] hoverActions;
+
+    private TreeBuilder(final MethodHandle textConstructor, final MethodHandle translatableConstructor, final MethodHandle addSibling, final MethodHandle setModifier, final MethodHandle modifierConstructor, final MethodHandle setColor, final MethodHandle[] setDecorations, final MethodHandle setClickEvent, final MethodHandle setHoverEvent, final MethodHandle setInsertion, final MethodHandle clickEventConstructor, final MethodHandle hoverEventConstructor, final Object[] colors, final Object[] clickActions, final Object[] hoverActions) {
+      this.textConstructor = textConstructor;
+      this.translatableConstructor = translatableConstructor;
+      this.addSibling = addSibling;
+      this.setModifier = setModifier;
+      this.modifierConstructor = modifierConstructor;
+      this.setColor = setColor;
+      this.setDecorations = setDecorations;
+      this.setClickEvent = setClickEvent;
+      this.setHoverEvent = setHoverEvent;
+      this.setInsertion = setInsertion;
+      this.clickEventConstructor = clickEventConstructor;
+      this.hoverEventConstructor = hoverEventConstructor;
+      this.colors = colors;
+      this.clickActions = clickActions;
+      this.hoverActions = hoverActions;
+    }
+
+    /*
+     * Returns null if the server's component classes are not of the expected shape, in which case components are sent as json.
+     */
+    static TreeBuilder load(final String serverVersion, final Class<?> baseComponentClass) {
+      try {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final Class<?> textClass = minecraftClass(serverVersion, "ChatComponentText");
+        final Class<?> translatableClass = minecraftClass(serverVersion, "ChatMessage");
+        final Class<?> modifierClass = minecraftClass(serverVersion, "ChatModifier");
+        final Class<?> formatClass = minecraftClass(serverVersion, "EnumChatFormat");
+        final Class<?> clickEventClass = minecraftClass(serverVersion, "ChatClickable");
+        final Class<?> clickActionClass = minecraftClass(serverVersion, "ChatClickable$EnumClickAction");
+        final Class<?> hoverEventClass = minecraftClass(serverVersion, "ChatHoverable");
+        final Class<?> hoverActionClass = minecraftClass(serverVersion, "ChatHoverable$EnumHoverAction");
+        final MethodHandle[] setDecorations = new MethodHandle[TextDecoration.values().length];
+        setDecorations[TextDecoration.OBFUSCATED.ordinal()] = lookup.findVirtual(modifierClass, "setRandom", MethodType.methodType(modifierClass, Boolean.class));
+        setDecorations[TextDecoration.BOLD.ordinal()] = lookup.findVirtual(modifierClass, "setBold", MethodType.methodType(modifierClass, Boolean.class));
+        setDecorations[TextDecoration.STRIKETHROUGH.ordinal()] = lookup.findVirtual(modifierClass, "setStrikethrough", MethodType.methodType(modifierClass, Boolean.class));
+        setDecorations[TextDecoration.UNDERLINED.ordinal()] = lookup.findVirtual(modifierClass, "setUnderline", MethodType.methodType(modifierClass, Boolean.class));
+        setDecorations[TextDecoration.ITALIC.ordinal()] = lookup.findVirtual(modifierClass, "setItalic", MethodType.methodType(modifierClass, Boolean.class));
+        return new TreeBuilder(
+          lookup.findConstructor(textClass, MethodType.methodType(void.class, String.class)),
+          lookup.findConstructor(translatableClass, MethodType.methodType(void.class, String.class, Object[].class)).asFixedArity(),
+          lookup.findVirtual(baseComponentClass, "addSibling", MethodType.methodType(baseComponentClass, baseComponentClass)),
+          lookup.findVirtual(baseComponentClass, "setChatModifier", MethodType.methodType(baseComponentClass, modifierClass)),
+          lookup.findConstructor(modifierClass, MethodType.methodType(void.class)),
+          lookup.findVirtual(modifierClass, "setColor", MethodType.methodType(modifierClass, formatClass)),
+          setDecorations,
+          lookup.findVirtual(modifierClass, "setChatClickable", MethodType.methodType(modifierClass, clickEventClass)),
+          lookup.findVirtual(modifierClass, "setChatHoverable", MethodType.methodType(modifierClass, hoverEventClass)),
+          lookup.findVirtual(modifierClass, "setInsertion", MethodType.methodType(modifierClass, String.class)),
+          lookup.findConstructor(clickEventClass, MethodType.methodType(void.class, clickActionClass, String.class)),
+          lookup.findConstructor(hoverEventClass, MethodType.methodType(void.class, hoverActionClass, baseComponentClass)),
+          constants(formatClass, TextColor.values()),
+          constants(clickActionClass, ClickEvent.Action.values()),
+          constants(hoverActionClass, HoverEvent.Action.values())
+        );
+      } catch(final Throwable e) {
+        return null;
+      }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object[] constants(final Class<?> enumClass, final Enum<?>[] values) {
+      final Object[] constants = new Object[values.length];
+      for(final Enum<?> value : values) {
+        constants[value.ordinal()] = Enum.valueOf((Class) enumClass, value.name());
+      }
+      return constants;
+    }
+
+    /*
+     * Returns null if the component contains a component type which cannot be built directly, or could not be built.
+     */
+    Object build(final Component component) {
+      try {
+        return this.build0(component);
+      } catch(final Throwable e) {
+        return null;
+      }
+    }
+
+    private Object build0(final Component component) throws Throwable {
+      final Object minecraft;
+      if(component instanceof TextComponent) {
+        minecraft = this.textConstructor.invoke(((TextComponent) component).content());
+      } else if(component instanceof TranslatableComponent) {
+        final List<Component> args = ((TranslatableComponent) component).args();
+        final Object[] minecraftArgs = new Object[args.size()];
+        for(int i = 0; i < minecraftArgs.length; i++) {
+          if((minecraftArgs[i] = this.build0(args.get(i))) == null) {
+            return null;
+          }
+        }
+        minecraft = this.translatableConstructor.invoke(((TranslatableComponent) component).key(), minecraftArgs);
+      } else {
+        return null;
+      }
+      if(component.hasStyling()) {
+        Object modifier = this.modifierConstructor.invoke();
+        final TextColor color = component.color();
+        if(color != null) {
+          modifier = this.setColor.invoke(modifier, this.colors[color.ordinal()]);
+        }
+        for(final TextDecoration decoration : TextDecoration.values()) {
+          final TextDecoration.State state = component.decoration(decoration);
+          if(state != TextDecoration.State.NOT_SET) {
+            modifier = this.setDecorations[decoration.ordinal()].invoke(modifier, state == TextDecoration.State.TRUE ? Boolean.TRUE : Boolean.FALSE);
+          }
+        }
+        final ClickEvent clickEvent = component.clickEvent();
+        if(clickEvent != null) {
+          modifier = this.setClickEvent.invoke(modifier, this.clickEventConstructor.invoke(this.clickActions[clickEvent.action().ordinal()], clickEvent.value()));
+        }
+        final HoverEvent hoverEvent = component.hoverEvent();
+        if(hoverEvent != null) {
+          final Object value = this.build0(hoverEvent.value());
+          if(value == null) {
+            return null;
+          }
+          modifier = this.setHoverEvent.invoke(modifier, this.hoverEventConstructor.invoke(this.hoverActions[hoverEvent.action().ordinal()], value));
+        }
+        if(component.insertion() != null) {
+          modifier = this.setInsertion.invoke(modifier, component.insertion());
+        }
+        this.setModifier.invoke(minecraft, modifier);
+      }
+      for(final Component child : component.children()) {
+        final Object minecraftChild = this.build0(child);
+        if(minecraftChild == null) {
+          return null;
+        }
+        this.addSibling.invoke(minecraft, minecraftChild);
+      }
+      return minecraft;
+    }
   }
 }
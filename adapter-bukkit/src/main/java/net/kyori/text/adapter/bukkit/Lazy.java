@@ -0,0 +1,89 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter.bukkit;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * A lazily computed value, published without taking a lock.
+ *
+ * <p>Unlike a value computed in a static initializer, threads which race to use the value
+ * first never block waiting for another thread to compute it.</p>
+ *
+ * @param <T> the type of the value
+ */
+final class Lazy<T> {
+  private static final Object PENDING = new Object();
+  private final AtomicReference<Object> value = new AtomicReference<>();
+  private final Supplier<T> supplier;
+  private final boolean once;
+
+  private Lazy(final Supplier<T> supplier, final boolean once) {
+    this.supplier = supplier;
+    this.once = once;
+  }
+
+  /**
+   * Creates a value which may be computed by several threads at once, where the first result to be published wins.
+   *
+   * @param supplier the supplier, which must not return {@code null}
+   * @param <T> the type of the value
+   * @return the lazy value
+   */
+  static <T> Lazy<T> idempotent(final Supplier<T> supplier) {
+    return new Lazy<>(supplier, false);
+  }
+
+  /**
+   * Creates a value which is only ever computed by one thread.
+   *
+   * <p>Other threads see {@code null} until the value has been computed.</p>
+   *
+   * @param supplier the supplier, which must not return {@code null}
+   * @param <T> the type of the value
+   * @return the lazy value
+   */
+  static <T> Lazy<T> once(final Supplier<T> supplier) {
+    return new Lazy<>(supplier, true);
+  }
+
+  @SuppressWarnings("unchecked")
+  T get() {
+    final Object value = this.value.get();
+    if(value != null) {
+      return value == PENDING ? null : (T) value;
+    }
+    if(this.once) {
+      if(!this.value.compareAndSet(null, PENDING)) {
+        return this.get();
+      }
+      final T computed = this.supplier.get();
+      this.value.set(computed);
+      return computed;
+    }
+    final T computed = this.supplier.get();
+    return this.value.compareAndSet(null, computed) ? computed : (T) this.value.get();
+  }
+}
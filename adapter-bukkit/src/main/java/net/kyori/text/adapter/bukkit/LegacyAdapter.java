@@ -23,15 +23,39 @@
  */
 package net.kyori.text.adapter.bukkit;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import net.kyori.text.Component;
+import net.kyori.text.adapter.ComponentFingerprint;
 import net.kyori.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.command.CommandSender;
 
 final class LegacyAdapter implements Adapter {
+  private static final Cache<Long, String> LEGACY = CacheBuilder.newBuilder()
+    .maximumSize(1024)
+    .build();
+
+  @Override
+  public int priority() {
+    return LEGACY_PRIORITY;
+  }
+
+  @Override
+  public Set<Capability> capabilities() {
+    return EnumSet.of(Capability.CHAT, Capability.BATCHING);
+  }
+
   @Override
   public void sendMessage(final List<? extends CommandSender> viewers, final Component component) {
-    final String legacy = LegacyComponentSerializer.INSTANCE.serialize(component);
+    final long fingerprint = ComponentFingerprint.of(component);
+    String legacy = LEGACY.getIfPresent(fingerprint);
+    if(legacy == null) {
+      legacy = LegacyComponentSerializer.INSTANCE.serialize(component);
+      LEGACY.put(fingerprint, legacy);
+    }
     for(final CommandSender viewer : viewers) {
       viewer.sendMessage(legacy);
     }
@@ -0,0 +1,204 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter.bukkit;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+import net.kyori.text.Component;
+import net.kyori.text.adapter.ComponentOptimizer;
+import net.kyori.text.serializer.gson.GsonComponentSerializer;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Streams a large number of messages to viewers, spread across ticks.
+ *
+ * <p>Messages are pulled from an iterator only when they are about to be sent, so the output is
+ * never built up front. Each tick, messages are sent until their serialized length, multiplied by
+ * the number of viewers, reaches the byte budget. At least one message is sent every tick.</p>
+ */
+public final class MessageStream implements Runnable {
+  /**
+   * The default number of bytes sent per tick.
+   */
+  public static final int DEFAULT_BYTES_PER_TICK = 1 << 15;
+  private final List<CommandSender> viewers;
+  private final Iterator<? extends Component> messages;
+  private final int bytesPerTick;
+  private @Nullable BukkitTask task;
+  private volatile boolean done;
+  private volatile int sent;
+
+  private MessageStream(final List<CommandSender> viewers, final Iterator<? extends Component> messages, final int bytesPerTick) {
+    this.viewers = viewers;
+    this.messages = messages;
+    this.bytesPerTick = bytesPerTick;
+  }
+
+  /**
+   * Streams {@code messages} to the given {@code viewers}, with the {@link #DEFAULT_BYTES_PER_TICK default byte budget}.
+   *
+   * @param plugin the plugin to schedule the stream for
+   * @param viewers the viewers to send the messages to
+   * @param messages the messages
+   * @return the stream
+   */
+  public static @NonNull MessageStream send(final @NonNull Plugin plugin, final @NonNull Iterable<? extends CommandSender> viewers, final @NonNull Iterator<? extends Component> messages) {
+    return send(plugin, viewers, messages, DEFAULT_BYTES_PER_TICK);
+  }
+
+  /**
+   * Streams {@code messages} to the given {@code viewers}.
+   *
+   * <p>If called from the main thread, the first messages are sent immediately.</p>
+   *
+   * @param plugin the plugin to schedule the stream for
+   * @param viewers the viewers to send the messages to
+   * @param messages the messages
+   * @param bytesPerTick the number of bytes which may be sent per tick
+   * @return the stream
+   */
+  public static @NonNull MessageStream send(final @NonNull Plugin plugin, final @NonNull Iterable<? extends CommandSender> viewers, final @NonNull Iterator<? extends Component> messages, final int bytesPerTick) {
+    if(bytesPerTick <= 0) {
+      throw new IllegalArgumentException("bytesPerTick must be positive");
+    }
+    final List<CommandSender> list = new ArrayList<>();
+    for(final CommandSender viewer : viewers) {
+      list.add(viewer);
+    }
+    final MessageStream stream = new MessageStream(list, messages, bytesPerTick);
+    if(Bukkit.isPrimaryThread()) {
+      stream.run();
+    }
+    if(!stream.done) {
+      stream.task = Bukkit.getScheduler().runTaskTimer(plugin, stream, 1, 1);
+    }
+    return stream;
+  }
+
+  /**
+   * Streams the messages supplied by {@code messages} to the given {@code viewers}, until it supplies {@code null}.
+   *
+   * @param plugin the plugin to schedule the stream for
+   * @param viewers the viewers to send the messages to
+   * @param messages the supplier of messages
+   * @param bytesPerTick the number of bytes which may be sent per tick
+   * @return the stream
+   */
+  public static @NonNull MessageStream send(final @NonNull Plugin plugin, final @NonNull Iterable<? extends CommandSender> viewers, final @NonNull Supplier<? extends @Nullable Component> messages, final int bytesPerTick) {
+    return send(plugin, viewers, new SupplierIterator(messages), bytesPerTick);
+  }
+
+  /**
+   * Checks if every message has been sent, or the stream was cancelled.
+   *
+   * @return {@code true} if the stream is done
+   */
+  public boolean done() {
+    return this.done;
+  }
+
+  /**
+   * Gets the number of messages which have been sent.
+   *
+   * @return the number of messages
+   */
+  public int sent() {
+    return this.sent;
+  }
+
+  /**
+   * Stops sending messages.
+   *
+   * <p>Must be called from the main thread.</p>
+   */
+  public void cancel() {
+    this.done = true;
+    if(this.task != null) {
+      this.task.cancel();
+      this.task = null;
+    }
+  }
+
+  @Override
+  public void run() {
+    if(this.done) {
+      return;
+    }
+    this.viewers.removeIf(viewer -> viewer instanceof Player && !((Player) viewer).isOnline());
+    if(this.viewers.isEmpty()) {
+      this.cancel();
+      return;
+    }
+    long spent = 0;
+    while(this.messages.hasNext()) {
+      // serialized once, both to measure the message and to send it
+      final String json = GsonComponentSerializer.INSTANCE.serialize(ComponentOptimizer.apply(this.messages.next()));
+      spent += (long) json.length() * this.viewers.size();
+      TextAdapter0.sendJson(this.viewers, json);
+      this.sent++;
+      if(spent >= this.bytesPerTick) {
+        return;
+      }
+    }
+    this.cancel();
+  }
+
+  private static final class SupplierIterator implements Iterator<Component> {
+    private final Supplier<? extends @Nullable Component> supplier;
+    private @Nullable Component next;
+    private boolean end;
+
+    SupplierIterator(final Supplier<? extends @Nullable Component> supplier) {
+      this.supplier = supplier;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if(this.next == null && !this.end) {
+        this.next = this.supplier.get();
+        this.end = this.next == null;
+      }
+      return !this.end;
+    }
+
+    @Override
+    public Component next() {
+      if(!this.hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final Component next = this.next;
+      this.next = null;
+      return next;
+    }
+  }
+}
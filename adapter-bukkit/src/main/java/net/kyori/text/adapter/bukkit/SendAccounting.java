@@ -0,0 +1,484 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter.bukkit;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Accounts the chat messages sent through {@link TextAdapter} to the plugin which sent them.
+ *
+ * <p>A send is attributed to the plugin given to {@link #attribute(Plugin, Runnable)}, or, if
+ * {@link #captureCallers(boolean) enabled}, to the plugin found on the calling thread's stack.
+ * Other sends are attributed to the {@link #UNKNOWN unknown} account.</p>
+ *
+ * <p>Each account may have a budget of bytes per tick. Once a plugin has used its budget,
+ * its further messages in that tick are throttled or deferred according to the {@link #policy(Policy) policy}.
+ * Each account may only have {@link #maxDeferred(int) so many} messages deferred at once - once it has, its
+ * further messages are throttled. {@link net.kyori.text.adapter.MessagePriority#HIGH High} priority messages
+ * are never held back.</p>
+ */
+public final class SendAccounting {
+  /**
+   * The name of the account which sends are attributed to when their plugin is not known.
+   */
+  public static final String UNKNOWN = "unknown";
+  private static final Map<String, Account> ACCOUNTS = new ConcurrentHashMap<>();
+  private static final ThreadLocal<Account> ATTRIBUTED = new ThreadLocal<>();
+  private static final Queue<Runnable> DEFERRED = new ConcurrentLinkedQueue<>();
+  private static final ClassValue<String> OWNERS = new ClassValue<String>() {
+    @Override
+    protected String computeValue(final Class<?> type) {
+      try {
+        return JavaPlugin.getProvidingPlugin(type).getName();
+      } catch(final IllegalArgumentException | IllegalStateException e) {
+        return null; // not loaded by a plugin
+      }
+    }
+  };
+  private static final CallerContext CALLERS = CallerContext.create();
+  private static volatile @Nullable BukkitTask task;
+  private static volatile boolean captureCallers;
+  private static volatile long defaultBudget;
+  private static volatile Policy policy = Policy.THROTTLE;
+  private static volatile int maxDeferred = 1024;
+
+  private SendAccounting() {
+  }
+
+  /**
+   * Starts accounting sends, and resets budgets every tick on a task scheduled for {@code plugin}.
+   *
+   * <p>While sends are accounted, chat messages are serialized once, so the json is measured and
+   * sent. On servers without Spigot the server then parses that json, where the message would
+   * otherwise have been built into the server's components directly.</p>
+   *
+   * @param plugin the plugin to schedule the task for
+   */
+  public static synchronized void install(final @NonNull Plugin plugin) {
+    uninstall();
+    task = Bukkit.getScheduler().runTaskTimer(plugin, SendAccounting::tick, 1, 1);
+  }
+
+  /**
+   * Stops accounting sends.
+   *
+   * <p>Deferred messages are sent immediately.</p>
+   */
+  public static synchronized void uninstall() {
+    final BukkitTask task = SendAccounting.task;
+    if(task != null) {
+      task.cancel();
+      SendAccounting.task = null;
+      Runnable send;
+      while((send = DEFERRED.poll()) != null) {
+        send.run();
+      }
+    }
+  }
+
+  /**
+   * Checks if sends are being accounted.
+   *
+   * @return {@code true} if accounting is installed
+   */
+  public static boolean installed() {
+    return task != null;
+  }
+
+  /**
+   * Sets if sends without an explicit plugin are attributed by searching the calling thread's stack.
+   *
+   * @param captureCallers {@code true} to search the stack
+   */
+  public static void captureCallers(final boolean captureCallers) {
+    SendAccounting.captureCallers = captureCallers;
+  }
+
+  /**
+   * Sets the budget of accounts which do not have their own budget.
+   *
+   * @param bytesPerTick the number of bytes each plugin may send per tick, or {@code 0} for no limit
+   */
+  public static void defaultBudget(final long bytesPerTick) {
+    if(bytesPerTick < 0) {
+      throw new IllegalArgumentException("bytesPerTick must not be negative");
+    }
+    defaultBudget = bytesPerTick;
+  }
+
+  /**
+   * Sets the policy applied to messages sent by a plugin which has used its budget.
+   *
+   * @param policy the policy
+   */
+  public static void policy(final @NonNull Policy policy) {
+    SendAccounting.policy = policy;
+  }
+
+  /**
+   * Sets the number of messages each account may have deferred at once.
+   *
+   * @param messages the number of messages
+   */
+  public static void maxDeferred(final int messages) {
+    if(messages < 0) {
+      throw new IllegalArgumentException("messages must not be negative");
+    }
+    maxDeferred = messages;
+  }
+
+  /**
+   * Runs {@code sends}, attributing every message sent on this thread to {@code plugin}.
+   *
+   * @param plugin the plugin
+   * @param sends the sends
+   */
+  public static void attribute(final @NonNull Plugin plugin, final @NonNull Runnable sends) {
+    final Account previous = ATTRIBUTED.get();
+    ATTRIBUTED.set(account(plugin.getName()));
+    try {
+      sends.run();
+    } finally {
+      if(previous == null) {
+        ATTRIBUTED.remove();
+      } else {
+        ATTRIBUTED.set(previous);
+      }
+    }
+  }
+
+  /**
+   * Gets the account of {@code plugin}.
+   *
+   * @param plugin the plugin
+   * @return the account
+   */
+  public static @NonNull Account account(final @NonNull Plugin plugin) {
+    return account(plugin.getName());
+  }
+
+  /**
+   * Gets every account which has been used.
+   *
+   * @return the accounts
+   */
+  public static @NonNull Collection<Account> accounts() {
+    return Collections.unmodifiableCollection(new ArrayList<>(ACCOUNTS.values()));
+  }
+
+  private static Account account(final String name) {
+    return ACCOUNTS.computeIfAbsent(name, Account::new);
+  }
+
+  /*
+   * Returns null when accounting is not installed.
+   */
+  static @Nullable Account current() {
+    if(task == null) {
+      return null;
+    }
+    final Account attributed = ATTRIBUTED.get();
+    if(attributed != null) {
+      return attributed;
+    }
+    return account(captureCallers ? caller() : UNKNOWN);
+  }
+
+  private static String caller() {
+    final String caller = CALLERS.find(SendAccounting::owner);
+    return caller == null ? UNKNOWN : caller;
+  }
+
+  private static @Nullable String owner(final Class<?> type) {
+    // skip this library, which may be shaded into a plugin, and the server
+    if(type.getName().startsWith("net.kyori.text.") || type.getClassLoader() == Bukkit.class.getClassLoader()) {
+      return null;
+    }
+    return OWNERS.get(type);
+  }
+
+  private static void tick() {
+    for(final Account account : ACCOUNTS.values()) {
+      account.spent.set(0);
+    }
+    // only the messages deferred before this tick - any deferred again wait for the next
+    for(int i = 0, size = DEFERRED.size(); i < size; i++) {
+      final Runnable send = DEFERRED.poll();
+      if(send == null) {
+        break;
+      }
+      send.run();
+    }
+  }
+
+  /**
+   * The policy applied to messages sent by a plugin which has used its budget.
+   */
+  public enum Policy {
+    /**
+     * Drop the message.
+     */
+    THROTTLE,
+    /**
+     * Send the message in a later tick.
+     */
+    DEFER;
+  }
+
+  /**
+   * The messages sent by a plugin.
+   */
+  public static final class Account {
+    private final String name;
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder viewers = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+    final AtomicLong spent = new AtomicLong();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile long budget = -1;
+
+    Account(final String name) {
+      this.name = name;
+    }
+
+    /**
+     * Gets the name of the plugin.
+     *
+     * @return the name
+     */
+    public @NonNull String name() {
+      return this.name;
+    }
+
+    /**
+     * Gets the number of messages sent.
+     *
+     * @return the number of messages
+     */
+    public long messages() {
+      return this.messages.sum();
+    }
+
+    /**
+     * Gets the number of viewers messages were sent to, summed over every message.
+     *
+     * @return the number of viewers
+     */
+    public long viewers() {
+      return this.viewers.sum();
+    }
+
+    /**
+     * Gets the number of serialized bytes sent, summed over every viewer.
+     *
+     * @return the number of bytes
+     */
+    public long bytes() {
+      return this.bytes.sum();
+    }
+
+    /**
+     * Gets the time spent serializing and sending messages, in nanoseconds.
+     *
+     * @return the time
+     */
+    public long nanos() {
+      return this.nanos.sum();
+    }
+
+    /**
+     * Gets the number of messages dropped for being over budget.
+     *
+     * @return the number of messages
+     */
+    public long throttled() {
+      return this.throttled.sum();
+    }
+
+    /**
+     * Gets the number of times a message was deferred for being over budget.
+     *
+     * @return the number of times
+     */
+    public long deferred() {
+      return this.deferred.sum();
+    }
+
+    /**
+     * Sets the number of bytes this plugin may send per tick.
+     *
+     * @param bytesPerTick the number of bytes, or {@code 0} for no limit
+     */
+    public void budget(final long bytesPerTick) {
+      if(bytesPerTick < 0) {
+        throw new IllegalArgumentException("bytesPerTick must not be negative");
+      }
+      this.budget = bytesPerTick;
+    }
+
+    /*
+     * Checks if a message of bytes may be sent this tick. If not, the message is dropped or send is deferred.
+     */
+    boolean admit(final long bytes, final Runnable send) {
+      final long budget = this.budget < 0 ? defaultBudget : this.budget;
+      // once uninstalled budgets no longer apply, so the deferred messages drained by uninstall are sent
+      if(budget == 0 || task == null) {
+        return true;
+      }
+      final long previous = this.spent.getAndAdd(bytes);
+      // the first message of a tick is always sent, so a message larger than the budget is not held back forever
+      if(previous == 0 || previous + bytes <= budget) {
+        return true;
+      }
+      this.spent.addAndGet(-bytes);
+      if(policy == Policy.DEFER && this.pending.incrementAndGet() <= maxDeferred) {
+        this.deferred.increment();
+        DEFERRED.add(() -> {
+          this.pending.decrementAndGet();
+          send.run();
+        });
+        return false;
+      }
+      if(policy == Policy.DEFER) {
+        this.pending.decrementAndGet(); // over the cap
+      }
+      this.throttled.increment();
+      return false;
+    }
+
+    void record(final int viewers, final long bytes, final long nanos) {
+      this.messages.increment();
+      this.viewers.add(viewers);
+      this.bytes.add(bytes);
+      this.nanos.add(nanos);
+    }
+  }
+
+  /*
+   * Finds the first class on the calling thread's stack which has an owner.
+   */
+  private abstract static class CallerContext {
+    abstract @Nullable String find(final Function<Class<?>, String> owner);
+
+    static CallerContext create() {
+      try {
+        return new StackWalkerContext();
+      } catch(final ReflectiveOperationException e) {
+        return new SecurityManagerContext(); // before Java 9
+      }
+    }
+  }
+
+  /*
+   * StackWalker is looked up reflectively, as it was added in Java 9. The stream of frames is lazy,
+   * so the walk stops at the first frame with an owner.
+   */
+  private static final class StackWalkerContext extends CallerContext {
+    private final MethodHandle walk;
+    private final MethodHandle declaringClass;
+
+    StackWalkerContext() throws ReflectiveOperationException {
+      final Class<?> walkerClass = Class.forName("java.lang.StackWalker");
+      final Class<?> optionClass = Class.forName("java.lang.StackWalker$Option");
+      final Class<?> frameClass = Class.forName("java.lang.StackWalker$StackFrame");
+      final Object retainClassReference = optionClass.getField("RETAIN_CLASS_REFERENCE").get(null);
+      final Object walker = walkerClass.getMethod("getInstance", optionClass).invoke(null, retainClassReference);
+      // walk is caller sensitive, so it needs a full privilege lookup
+      final MethodHandles.Lookup lookup = MethodHandles.lookup();
+      this.walk = lookup.findVirtual(walkerClass, "walk", MethodType.methodType(Object.class, Function.class)).bindTo(walker);
+      this.declaringClass = lookup.findVirtual(frameClass, "getDeclaringClass", MethodType.methodType(Class.class))
+        .asType(MethodType.methodType(Class.class, Object.class));
+    }
+
+    @Override
+    @Nullable String find(final Function<Class<?>, String> owner) {
+      final Function<Stream<?>, String> search = frames -> frames
+        .map(this::declaringClass)
+        .map(owner)
+        .filter(Objects::nonNull)
+        .findFirst()
+        .orElse(null);
+      try {
+        return (String) (Object) this.walk.invokeExact(search);
+      } catch(final Throwable e) {
+        return null;
+      }
+    }
+
+    private Class<?> declaringClass(final Object frame) {
+      try {
+        return (Class<?>) this.declaringClass.invokeExact(frame);
+      } catch(final Throwable e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private static final class SecurityManagerContext extends CallerContext {
+    private final Stack stack = new Stack();
+
+    @Override
+    @Nullable String find(final Function<Class<?>, String> owner) {
+      for(final Class<?> type : this.stack.classes()) {
+        final String found = owner.apply(type);
+        if(found != null) {
+          return found;
+        }
+      }
+      return null;
+    }
+
+    // SecurityManager is deprecated for removal, but is only used where StackWalker does not exist
+    @SuppressWarnings("removal")
+    private static final class Stack extends SecurityManager {
+      Class<?>[] classes() {
+        return this.getClassContext();
+      }
+    }
+  }
+}
@@ -0,0 +1,262 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter.bukkit;
+
+import com.google.common.collect.MapMaker;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import net.kyori.text.adapter.ComponentFingerprint;
+import org.bukkit.entity.Player;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Renders a sidebar of text {@link Component}s to players with scoreboard packets.
+ *
+ * <p>The last rendered state is kept for each player, and each render only sends the packets
+ * for the title and lines which changed. When rendering to several players, a packet which
+ * is the same for every player is created once and shared.</p>
+ *
+ * <p>Each line is shown as the prefix of a team with a single, invisible entry, so lines may
+ * be any length. The sidebar is independent of the player's Bukkit scoreboard, and must
+ * only be rendered from the main thread.</p>
+ */
+public final class Sidebar {
+  /**
+   * The maximum number of lines a sidebar can show.
+   */
+  public static final int MAX_LINES = 15;
+  private static final AtomicInteger IDS = new AtomicInteger();
+  // objective modes
+  private static final int CREATE = 0;
+  private static final int REMOVE = 1;
+  private static final int UPDATE = 2;
+  private static final long[] NO_LINES = new long[0];
+  private final String name;
+  private final String[] teams = new String[MAX_LINES];
+  private final Map<Player, State> states = new MapMaker().weakKeys().makeMap();
+
+  private Sidebar(final String name) {
+    this.name = name;
+    for(int i = 0; i < MAX_LINES; i++) {
+      this.teams[i] = name + '.' + i;
+    }
+  }
+
+  /**
+   * Checks if sidebars can be rendered on this server.
+   *
+   * @return {@code true} if sidebars are supported
+   */
+  public static boolean supported() {
+    return CraftBukkitAdapter.sidebarPackets() != null;
+  }
+
+  /**
+   * Creates a sidebar.
+   *
+   * @return the sidebar
+   */
+  public static @NonNull Sidebar create() {
+    return new Sidebar("kt" + Integer.toString(IDS.getAndIncrement(), 36));
+  }
+
+  /**
+   * Renders the sidebar to {@code player}.
+   *
+   * @param player the player
+   * @param title the title
+   * @param lines the lines, from top to bottom
+   */
+  public void render(final @NonNull Player player, final @NonNull Component title, final @NonNull List<? extends Component> lines) {
+    this.render(Collections.singletonList(player), title, lines);
+  }
+
+  /**
+   * Renders the sidebar to the given {@code players}.
+   *
+   * @param players the players
+   * @param title the title
+   * @param lines the lines, from top to bottom
+   */
+  public void render(final @NonNull Iterable<? extends Player> players, final @NonNull Component title, final @NonNull List<? extends Component> lines) {
+    if(lines.size() > MAX_LINES) {
+      throw new IllegalArgumentException("A sidebar can show at most " + MAX_LINES + " lines");
+    }
+    final CraftBukkitAdapter.SidebarPackets packets = CraftBukkitAdapter.sidebarPackets();
+    if(packets == null) {
+      return;
+    }
+    final long titleFingerprint = ComponentFingerprint.of(title);
+    final long[] fingerprints = new long[lines.size()];
+    for(int i = 0; i < fingerprints.length; i++) {
+      fingerprints[i] = ComponentFingerprint.of(lines.get(i));
+    }
+    final Packets shared = new Packets(packets, title, lines);
+    try {
+      for(final Player player : players) {
+        final State state = this.states.get(player);
+        try {
+          this.render(packets, shared, player, state, titleFingerprint, fingerprints);
+        } catch(final RuntimeException e) {
+          // the player keeps their last known state, so the next render sends what they are missing
+          e.printStackTrace();
+          continue;
+        }
+        // only stored once every packet was sent
+        if(state == null) {
+          this.states.put(player, new State(titleFingerprint, fingerprints));
+        } else {
+          state.title = titleFingerprint;
+          state.lines = fingerprints;
+        }
+      }
+    } catch(final ReflectiveOperationException e) {
+      throw new UnsupportedOperationException("An exception was encountered while creating a sidebar packet", e);
+    }
+  }
+
+  /*
+   * Sends the packets which take player from state to the rendered title and lines.
+   */
+  private void render(final CraftBukkitAdapter.SidebarPackets packets, final Packets shared, final Player player, final @Nullable State state, final long titleFingerprint, final long[] fingerprints) throws ReflectiveOperationException {
+    if(state == null) {
+      packets.send(shared.objective(CREATE), player);
+      packets.send(shared.display(), player);
+    } else if(state.title != titleFingerprint) {
+      packets.send(shared.objective(UPDATE), player);
+    }
+    final long[] previous = state == null ? NO_LINES : state.lines;
+    for(int i = 0; i < fingerprints.length; i++) {
+      if(i >= previous.length) {
+        packets.send(shared.team(i, CREATE), player);
+        packets.send(shared.score(i, false), player);
+      } else if(previous[i] != fingerprints[i]) {
+        packets.send(shared.team(i, UPDATE), player);
+      }
+    }
+    for(int i = fingerprints.length; i < previous.length; i++) {
+      packets.send(shared.score(i, true), player);
+      packets.send(shared.team(i, REMOVE), player);
+    }
+  }
+
+  /**
+   * Removes the sidebar from {@code player}.
+   *
+   * @param player the player
+   */
+  public void remove(final @NonNull Player player) {
+    final State state = this.states.remove(player);
+    final CraftBukkitAdapter.SidebarPackets packets = CraftBukkitAdapter.sidebarPackets();
+    if(state == null || packets == null || !player.isOnline()) {
+      return;
+    }
+    try {
+      for(int i = 0; i < state.lines.length; i++) {
+        packets.send(packets.team(this.teams[i], REMOVE, null, null), player);
+      }
+      packets.send(packets.objective(this.name, TextComponent.empty(), REMOVE), player);
+    } catch(final ReflectiveOperationException e) {
+      throw new UnsupportedOperationException("An exception was encountered while creating a sidebar packet", e);
+    }
+  }
+
+  /*
+   * An entry made only of formatting codes, so it is not visible.
+   */
+  private static String entry(final int line) {
+    return "\u00a7" + Integer.toHexString(line) + "\u00a7r";
+  }
+
+  private static final class State {
+    long title;
+    long[] lines;
+
+    State(final long title, final long[] lines) {
+      this.title = title;
+      this.lines = lines;
+    }
+  }
+
+  /*
+   * Creates each packet at most once per render, so it can be shared between players.
+   */
+  private final class Packets {
+    private final CraftBukkitAdapter.SidebarPackets packets;
+    private final Component title;
+    private final List<? extends Component> lines;
+    private final Map<Integer, Object> created = new HashMap<>();
+
+    Packets(final CraftBukkitAdapter.SidebarPackets packets, final Component title, final List<? extends Component> lines) {
+      this.packets = packets;
+      this.title = title;
+      this.lines = lines;
+    }
+
+    Object objective(final int mode) throws ReflectiveOperationException {
+      Object packet = this.created.get(-1 - mode);
+      if(packet == null) {
+        packet = this.packets.objective(Sidebar.this.name, this.title, mode);
+        this.created.put(-1 - mode, packet);
+      }
+      return packet;
+    }
+
+    Object display() throws ReflectiveOperationException {
+      Object packet = this.created.get(-10);
+      if(packet == null) {
+        packet = this.packets.display(Sidebar.this.name);
+        this.created.put(-10, packet);
+      }
+      return packet;
+    }
+
+    Object team(final int line, final int mode) throws ReflectiveOperationException {
+      final int key = line * 8 + mode;
+      Object packet = this.created.get(key);
+      if(packet == null) {
+        packet = this.packets.team(Sidebar.this.teams[line], mode, mode == REMOVE ? null : this.lines.get(line), mode == CREATE ? entry(line) : null);
+        this.created.put(key, packet);
+      }
+      return packet;
+    }
+
+    Object score(final int line, final boolean remove) throws ReflectiveOperationException {
+      final int key = line * 8 + (remove ? 4 : 3);
+      Object packet = this.created.get(key);
+      if(packet == null) {
+        // scores count down from zero, so lines are ordered top to bottom and never need renumbering
+        packet = this.packets.score(Sidebar.this.name, entry(line), -line, remove);
+        this.created.put(key, packet);
+      }
+      return packet;
+    }
+  }
+}
@@ -27,20 +27,29 @@ import com.google.common.collect.Lists;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
 import com.google.gson.TypeAdapterFactory;
 import com.google.gson.internal.Excluder;
+import com.google.gson.internal.bind.TypeAdapters;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import net.kyori.text.Component;
+import net.kyori.text.adapter.ComponentOptimizer;
+import net.kyori.text.adapter.SendPipeline;
 import net.kyori.text.serializer.gson.GsonComponentSerializer;
 import net.md_5.bungee.api.ChatMessageType;
 import net.md_5.bungee.api.chat.BaseComponent;
@@ -49,7 +58,22 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
 final class SpigotAdapter implements Adapter {
-  private static final boolean BOUND = bind();
+  // bound by a single thread, as binding modifies the server's gson - other threads use another adapter until it is done
+  private static final Lazy<Boolean> BOUND = Lazy.once(SpigotAdapter::bind);
+  // set when binding, if the server's gson can write raw json
+  private static volatile boolean rawJson;
+  // whether a player implementation can send components - Bukkit's own throws, which is only seen when the write runs
+  private static final ClassValue<Boolean> SENDS_COMPONENTS = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(final Class<?> type) {
+      try {
+        return type.getMethod("sendMessage", BaseComponent[].class).getDeclaringClass() != Player.Spigot.class
+          && type.getMethod("sendMessage", ChatMessageType.class, BaseComponent[].class).getDeclaringClass() != Player.Spigot.class;
+      } catch(final NoSuchMethodException e) {
+        return false;
+      }
+    }
+  };
 
   @SuppressWarnings("unchecked")
   private static boolean bind() {
@@ -90,7 +114,14 @@ final class SpigotAdapter implements Adapter {
       final TypeAdapterFactory adapterComponentFactory = (TypeAdapterFactory) newFactoryWithMatchRawTypeMethod.invoke(null, TypeToken.get(AdapterComponent.class), new Serializer());
       modifiedFactories.add(index, adapterComponentFactory);
 
+      // JsonWriter#jsonValue was added in gson 2.4
+      final boolean rawJson = hasMethod(JsonWriter.class, "jsonValue", String.class);
+      if(rawJson) {
+        modifiedFactories.add(index, TypeAdapters.newFactory(JsonComponent.class, new JsonComponentAdapter()));
+      }
+
       factoriesField.set(gson, modifiedFactories);
+      SpigotAdapter.rawJson = rawJson;
       return true;
     } catch(final Throwable e) {
       return false;
@@ -103,6 +134,15 @@ final class SpigotAdapter implements Adapter {
     return field;
   }
 
+  private static boolean hasMethod(final Class<?> klass, final String name, final Class<?>... parameterTypes) {
+    try {
+      klass.getMethod(name, parameterTypes);
+      return true;
+    } catch(final NoSuchMethodException e) {
+      return false;
+    }
+  }
+
   private static int findExcluderIndex(final List<TypeAdapterFactory> factories) {
     for(int i = 0, size = factories.size(); i < size; i++) {
       final TypeAdapterFactory factory = factories.get(i);
@@ -113,9 +153,28 @@ final class SpigotAdapter implements Adapter {
     return 0;
   }
 
+  private static boolean bound() {
+    return Boolean.TRUE.equals(BOUND.get());
+  }
+
+  @Override
+  public boolean available() {
+    return !Boolean.FALSE.equals(BOUND.get());
+  }
+
+  @Override
+  public int priority() {
+    return SPIGOT_PRIORITY;
+  }
+
+  @Override
+  public Set<Capability> capabilities() {
+    return EnumSet.of(Capability.CHAT, Capability.ACTION_BAR, Capability.BATCHING);
+  }
+
   @Override
   public void sendMessage(final List<? extends CommandSender> viewers, final Component component) {
-    if(!BOUND) {
+    if(!bound()) {
       return;
     }
     send(viewers, component, (viewer, components) -> viewer.spigot().sendMessage(components));
@@ -123,35 +182,53 @@ final class SpigotAdapter implements Adapter {
 
   @Override
   public void sendActionBar(final List<? extends CommandSender> viewers, final Component component) {
-    if(!BOUND) {
+    if(!bound()) {
       return;
     }
     send(viewers, component, (viewer, components) -> viewer.spigot().sendMessage(ChatMessageType.ACTION_BAR, components));
   }
 
+  @Override
+  public void sendJsonMessage(final List<? extends CommandSender> viewers, final String json) {
+    if(!bound() || !rawJson) {
+      return; // left to the CraftBukkit adapter, which has the server parse the json
+    }
+    // written into the packet as-is when it is encoded
+    send(viewers, new BaseComponent[]{new JsonComponent(json)}, (viewer, components) -> viewer.spigot().sendMessage(components));
+  }
+
   private static void send(final List<? extends CommandSender> viewers, final Component component, final BiConsumer<Player, BaseComponent[]> consumer) {
-    if(!BOUND) {
+    if(!bound()) {
       return;
     }
-    final BaseComponent[] components = {new AdapterComponent(component)};
-    for(final Iterator<? extends CommandSender> it = viewers.iterator(); it.hasNext(); ) {
-      final CommandSender viewer = it.next();
+    send(viewers, new BaseComponent[]{new AdapterComponent(component)}, consumer);
+  }
+
+  private static void send(final List<? extends CommandSender> viewers, final BaseComponent[] components, final BiConsumer<Player, BaseComponent[]> consumer) {
+    viewers.removeIf(viewer -> {
       if(viewer instanceof Player) {
         try {
-          consumer.accept((Player) viewer, components);
-          it.remove();
+          final Player player = (Player) viewer;
+          // checked on the calling thread, so a player who cannot be sent to is left to the next adapter
+          if(!SENDS_COMPONENTS.get(player.spigot().getClass())) {
+            return false;
+          }
+          SendPipeline.dispatch(player, () -> consumer.accept(player, components));
+          return true;
         } catch(final Throwable e) {
           e.printStackTrace();
         }
       }
-    }
+      return false;
+    });
   }
 
   static BaseComponent[] toBungeeCord(final Component component) {
-    if(BOUND) {
-      return new BaseComponent[]{new AdapterComponent(component)};
+    final Component optimized = ComponentOptimizer.apply(component);
+    if(bound()) {
+      return new BaseComponent[]{new AdapterComponent(optimized)};
     } else {
-      return ComponentSerializer.parse(GsonComponentSerializer.INSTANCE.serialize(component));
+      return ComponentSerializer.parse(GsonComponentSerializer.INSTANCE.serialize(optimized));
     }
   }
 
@@ -174,4 +251,34 @@ final class SpigotAdapter implements Adapter {
       return context.serialize(src.component);
     }
   }
+
+  public static final class JsonComponent extends BaseComponent {
+    private final String json;
+
+    JsonComponent(final String json) {
+      this.json = json;
+    }
+
+    @Override
+    public BaseComponent duplicate() {
+      return this;
+    }
+  }
+
+  public static class JsonComponentAdapter extends TypeAdapter<JsonComponent> {
+    @Override
+    public void write(final JsonWriter out, final JsonComponent value) throws IOException {
+      if(out.getClass() == JsonWriter.class) {
+        out.jsonValue(value.json);
+      } else {
+        // a tree writer cannot take raw json
+        TypeAdapters.JSON_ELEMENT.write(out, new JsonParser().parse(value.json));
+      }
+    }
+
+    @Override
+    public JsonComponent read(final JsonReader in) {
+      throw new UnsupportedOperationException();
+    }
+  }
 }
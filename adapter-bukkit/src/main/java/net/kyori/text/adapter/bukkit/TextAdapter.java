@@ -23,13 +23,11 @@
  */
 package net.kyori.text.adapter.bukkit;
 
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterables;
 import java.util.Collections;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import net.kyori.text.Component;
+import net.kyori.text.adapter.MessagePriority;
+import net.kyori.text.adapter.PreparedMessage;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -38,6 +36,26 @@ import org.checkerframework.checker.nullness.qual.NonNull;
  * An adapter for sending text {@link Component}s to Bukkit objects.
  */
 public interface TextAdapter {
+  /**
+   * Registers an additional {@link Adapter adapter}.
+   *
+   * <p>The adapter is used for every send after this call, if it is {@link Adapter#available() available}.</p>
+   *
+   * @param adapter the adapter
+   */
+  static void registerAdapter(final @NonNull Adapter adapter) {
+    TextAdapter0.registerAdapter(adapter);
+  }
+
+  /**
+   * Unregisters an adapter registered with {@link #registerAdapter(Adapter)}.
+   *
+   * @param adapter the adapter
+   */
+  static void unregisterAdapter(final @NonNull Adapter adapter) {
+    TextAdapter0.unregisterAdapter(adapter);
+  }
+
   /**
    * Sends {@code component} to the given {@code viewer}.
    *
@@ -55,7 +73,43 @@ public interface TextAdapter {
    * @param component the component
    */
   static void sendMessage(final @NonNull Iterable<? extends CommandSender> viewers, final @NonNull Component component) {
-    TextAdapter0.sendComponent(viewers, component, false);
+    sendMessage(viewers, component, MessagePriority.NORMAL);
+  }
+
+  /**
+   * Sends {@code component} to the given {@code viewers}.
+   *
+   * @param viewers the viewers to send the component to
+   * @param component the component
+   * @param priority the priority
+   */
+  static void sendMessage(final @NonNull Iterable<? extends CommandSender> viewers, final @NonNull Component component, final @NonNull MessagePriority priority) {
+    TextAdapter0.sendComponent(viewers, component, false, priority);
+  }
+
+  /**
+   * Sends {@code message}, rendered with {@code values}, to the given {@code viewer}.
+   *
+   * @param viewer the viewer to send the message to
+   * @param message the message
+   * @param values the placeholder values
+   */
+  static void sendMessage(final @NonNull CommandSender viewer, final @NonNull PreparedMessage message, final @NonNull Object... values) {
+    sendMessage(Collections.singleton(viewer), message, values);
+  }
+
+  /**
+   * Sends {@code message}, rendered with {@code values}, to the given {@code viewers}.
+   *
+   * <p>On Spigot, the rendered message is written into the chat packet as-is. Other servers
+   * parse it into a server chat component before it is sent.</p>
+   *
+   * @param viewers the viewers to send the message to
+   * @param message the message
+   * @param values the placeholder values
+   */
+  static void sendMessage(final @NonNull Iterable<? extends CommandSender> viewers, final @NonNull PreparedMessage message, final @NonNull Object... values) {
+    TextAdapter0.sendJson(viewers, message.render(values));
   }
 
   /**
@@ -79,7 +133,7 @@ public interface TextAdapter {
    */
   @Deprecated
   static void sendComponent(final @NonNull Iterable<? extends CommandSender> viewers, final @NonNull Component component) {
-    TextAdapter0.sendComponent(viewers, component, false);
+    sendMessage(viewers, component);
   }
 
   /**
@@ -99,44 +153,88 @@ public interface TextAdapter {
    * @param component the component
    */
   static void sendActionBar(final @NonNull Iterable<? extends CommandSender> viewers, final @NonNull Component component) {
-    TextAdapter0.sendComponent(viewers, component, true);
+    sendActionBar(viewers, component, MessagePriority.LOW);
   }
-}
 
-final class TextAdapter0 {
-  private static final List<Adapter> ADAPTERS = pickAdapters();
-
-  private static List<Adapter> pickAdapters() {
-    final ImmutableList.Builder<Adapter> adapters = ImmutableList.builder();
-    if(isSpigotAdapterSupported()) {
-      adapters.add(new SpigotAdapter());
-    }
-    adapters.add(new CraftBukkitAdapter());
-    adapters.add(new LegacyAdapter());
-    return adapters.build();
-  }
-
-  private static boolean isSpigotAdapterSupported() {
-    try {
-      Class<?> spigot = Player.class.getMethod("spigot").getReturnType();
-      spigot.getMethod("sendMessage", Class.forName("net.md_5.bungee.api.ChatMessageType"),
-              Class.forName("net.md_5.bungee.api.chat.BaseComponent"));
-      return true;
-    } catch(final NoSuchMethodException | ClassNotFoundException e) {
-      return false;
-    }
-  }
-
-  static void sendComponent(final Iterable<? extends CommandSender> viewers, final Component component, final boolean actionBar) {
-    final List<CommandSender> list = new LinkedList<>();
-    Iterables.addAll(list, viewers);
-    for(final Iterator<Adapter> it = ADAPTERS.iterator(); it.hasNext() && !list.isEmpty(); ) {
-      final Adapter adapter = it.next();
-      if(actionBar) {
-        adapter.sendActionBar(list, component);
-      } else {
-        adapter.sendMessage(list, component);
-      }
-    }
-  }
-}
\ No newline at end of file
+  /**
+   * Sends {@code component} to the given {@code viewers}'s action bar.
+   *
+   * @param viewers the viewers to send the component to
+   * @param component the component
+   * @param priority the priority
+   */
+  static void sendActionBar(final @NonNull Iterable<? extends CommandSender> viewers, final @NonNull Component component, final @NonNull MessagePriority priority) {
+    TextAdapter0.sendComponent(viewers, component, true, priority);
+  }
+
+  /**
+   * Sets the header and footer of the player list of the given {@code viewer}.
+   *
+   * @param viewer the viewer
+   * @param header the header
+   * @param footer the footer
+   */
+  static void sendPlayerListHeaderAndFooter(final @NonNull Player viewer, final @NonNull Component header, final @NonNull Component footer) {
+    sendPlayerListHeaderAndFooter(Collections.singleton(viewer), header, footer);
+  }
+
+  /**
+   * Sets the header and footer of the player list of the given {@code viewers}.
+   *
+   * <p>The packet is created once and shared between viewers. Viewers whose header and footer
+   * are already equal to {@code header} and {@code footer} are skipped.</p>
+   *
+   * <p>Only headers and footers sent through this adapter are known. If they are changed by other
+   * means, such as {@code Player#setPlayerListHeaderFooter}, the viewer must be
+   * {@link #invalidatePlayerListHeaderAndFooter(Player) invalidated} or the next header and footer
+   * may be skipped.</p>
+   *
+   * @param viewers the viewers
+   * @param header the header
+   * @param footer the footer
+   */
+  static void sendPlayerListHeaderAndFooter(final @NonNull Iterable<? extends Player> viewers, final @NonNull Component header, final @NonNull Component footer) {
+    TextAdapter0.sendPlayerListHeaderAndFooter(viewers, header, footer);
+  }
+
+  /**
+   * Forgets the header and footer last sent to the player list of the given {@code viewer}, so
+   * the next header and footer is always sent.
+   *
+   * @param viewer the viewer
+   */
+  static void invalidatePlayerListHeaderAndFooter(final @NonNull Player viewer) {
+    TextAdapter0.invalidatePlayerListHeaderAndFooter(viewer);
+  }
+
+  /**
+   * Opens a book to the given {@code viewer}.
+   *
+   * <p>Does nothing on servers which cannot open books, before 1.14.</p>
+   *
+   * @param viewer the viewer
+   * @param title the title
+   * @param author the author
+   * @param pages the pages
+   */
+  static void openBook(final @NonNull Player viewer, final @NonNull String title, final @NonNull String author, final @NonNull List<? extends Component> pages) {
+    openBook(Collections.singleton(viewer), title, author, pages);
+  }
+
+  /**
+   * Opens a book to the given {@code viewers}.
+   *
+   * <p>The book is built and encoded once, and reused for every viewer and for later openings
+   * of a book with equal pages.</p>
+   *
+   * <p>Does nothing on servers which cannot open books, before 1.14.</p>
+   *
+   * @param viewers the viewers
+   * @param title the title
+   * @param author the author
+   * @param pages the pages
+   */
+  static void openBook(final @NonNull Iterable<? extends Player> viewers, final @NonNull String title, final @NonNull String author, final @NonNull List<? extends Component> pages) {
+    TextAdapter0.openBook(viewers, title, author, pages);
+  }
+}
@@ -0,0 +1,416 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter.bukkit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.MapMaker;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.atomic.AtomicReference;
+import net.kyori.text.Component;
+import net.kyori.text.adapter.Backpressure;
+import net.kyori.text.adapter.ComponentFingerprint;
+import net.kyori.text.adapter.ComponentOptimizer;
+import net.kyori.text.adapter.MessageBudget;
+import net.kyori.text.adapter.MessagePriority;
+import net.kyori.text.adapter.TrafficCapture;
+import net.kyori.text.serializer.gson.GsonComponentSerializer;
+import net.kyori.text.serializer.legacy.LegacyComponentSerializer;
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.bukkit.Material;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.BookMeta;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+final class TextAdapter0 {
+  // the header and footer fingerprints last sent to each player
+  private static final Map<Player, long[]> PLAYER_LISTS = new MapMaker().weakKeys().makeMap();
+  private static final Cache<Long, Object> PLAYER_LIST_PACKETS = CacheBuilder.newBuilder()
+    .maximumSize(64)
+    .build();
+  // keyed by the title, author and pages, so a book is rebuilt when they change
+  private static final Cache<BookKey, ItemStack> BOOKS = CacheBuilder.newBuilder()
+    .maximumSize(64)
+    .build();
+  // Player#openBook was added in 1.14
+  private static final Lazy<Optional<Method>> OPEN_BOOK = Lazy.idempotent(() -> {
+    try {
+      return Optional.of(Player.class.getMethod("openBook", ItemStack.class));
+    } catch(final NoSuchMethodException e) {
+      return Optional.empty();
+    }
+  });
+  // picked without a lock, so threads sending their first message never block on class initialization
+  private static final Lazy<List<Adapter>> DISCOVERED = Lazy.idempotent(TextAdapter0::discoverAdapters);
+  // replaced as a whole, so a set of adapters can tell whether it was picked from the current registrations
+  private static final AtomicReference<List<Adapter>> REGISTERED = new AtomicReference<>(ImmutableList.of());
+  private static final AtomicReference<Adapters> ADAPTERS = new AtomicReference<>();
+
+  static void registerAdapter(final Adapter adapter) {
+    REGISTERED.updateAndGet(registered -> ImmutableList.<Adapter>builder().addAll(registered).add(adapter).build());
+  }
+
+  static void unregisterAdapter(final Adapter adapter) {
+    REGISTERED.updateAndGet(registered -> registered.stream()
+      .filter(other -> other != adapter)
+      .collect(ImmutableList.toImmutableList()));
+  }
+
+  private static Adapters adapters() {
+    final List<Adapter> registered = REGISTERED.get();
+    final Adapters current = ADAPTERS.get();
+    if(current != null && current.registered == registered) {
+      return current;
+    }
+    // a set picked from older registrations may still be published by a racing thread, but is replaced on the next send
+    final Adapters adapters = new Adapters(pickAdapters(DISCOVERED.get(), registered), registered);
+    ADAPTERS.set(adapters);
+    return adapters;
+  }
+
+  private static List<Adapter> pickAdapters(final List<Adapter> discovered, final List<Adapter> registered) {
+    final List<Adapter> adapters = new ArrayList<>(discovered);
+    adapters.addAll(registered);
+    adapters.removeIf(adapter -> !adapter.available());
+    adapters.sort(Comparator.comparingInt(Adapter::priority).reversed()
+      .thenComparing(adapter -> !adapter.capabilities().contains(Adapter.Capability.BATCHING)));
+    return ImmutableList.copyOf(adapters);
+  }
+
+  private static List<Adapter> discoverAdapters() {
+    final List<Adapter> adapters = new ArrayList<>();
+    if(isSpigotAdapterSupported()) {
+      adapters.add(new SpigotAdapter());
+    }
+    adapters.add(new CraftBukkitAdapter());
+    adapters.add(new LegacyAdapter());
+    for(final Iterator<Adapter> it = ServiceLoader.load(Adapter.class, Adapter.class.getClassLoader()).iterator(); it.hasNext(); ) {
+      try {
+        adapters.add(it.next());
+      } catch(final ServiceConfigurationError e) {
+        e.printStackTrace();
+      }
+    }
+    return ImmutableList.copyOf(adapters);
+  }
+
+  private static List<Adapter> withCapability(final List<Adapter> adapters, final Adapter.Capability capability) {
+    return adapters.stream()
+      .filter(adapter -> adapter.capabilities().contains(capability))
+      .collect(ImmutableList.toImmutableList());
+  }
+
+  private static boolean isSpigotAdapterSupported() {
+    try {
+      Class<?> spigot = Player.class.getMethod("spigot").getReturnType();
+      spigot.getMethod("sendMessage", Class.forName("net.md_5.bungee.api.ChatMessageType"),
+              Class.forName("net.md_5.bungee.api.chat.BaseComponent"));
+      return true;
+    } catch(final NoSuchMethodException | ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  static void sendComponent(final Iterable<? extends CommandSender> viewers, final Component component, final boolean actionBar, final MessagePriority priority) {
+    sendComponent(viewers, component, actionBar, priority, actionBar ? null : ChatHistory.installed());
+  }
+
+  /*
+   * Returns the id of the message in history, or 0 if there is no history.
+   */
+  static long sendComponent(final Iterable<? extends CommandSender> viewers, final Component component, final boolean actionBar, final MessagePriority priority, final @Nullable ChatHistory history) {
+    return sendComponent(viewers(viewers, priority), component, actionBar, priority, history, SendAccounting.current());
+  }
+
+  private static long sendComponent(final List<CommandSender> list, final Component component, final boolean actionBar, final MessagePriority priority, final @Nullable ChatHistory history, final SendAccounting.@Nullable Account account) {
+    // optimizing and serializing are accounted as part of the send
+    final long start = account == null ? 0 : System.nanoTime();
+    final Component optimized = ComponentOptimizer.apply(component);
+    if(actionBar) {
+      sendActionBar(list, component, optimized, priority, account, account == null ? 0 : System.nanoTime() - start);
+      return 0;
+    }
+    final List<Component> parts = MessageBudget.apply(optimized);
+    if(history != null || account != null) {
+      // serialized once, and the same json is measured, recorded and sent
+      final String[] json = json(parts);
+      return sendJson(list, component, json, priority, history, history == null ? 0 : history.nextId(), account, account == null ? 0 : System.nanoTime() - start);
+    }
+    TrafficCapture.record(component, TrafficCapture.Channel.CHAT, list.size());
+    for(int i = 0, size = parts.size(); i < size; i++) {
+      // adapters remove the viewers they send to, so every part but the last needs its own list
+      final List<CommandSender> remaining = i == size - 1 ? list : new ArrayList<>(list);
+      final Component part = parts.get(i);
+      for(final Iterator<Adapter> it = adapters().chat.iterator(); it.hasNext() && !remaining.isEmpty(); ) {
+        it.next().sendMessage(remaining, part);
+      }
+    }
+    return 0;
+  }
+
+  /*
+   * prepared is the time already spent preparing the message, which is accounted along with the send.
+   */
+  private static void sendActionBar(final List<CommandSender> list, final Component component, final Component optimized, final MessagePriority priority, final SendAccounting.@Nullable Account account, final long prepared) {
+    final int count = list.size();
+    final long start = account == null ? 0 : System.nanoTime() - prepared;
+    long bytes = 0;
+    if(account != null) {
+      // action bars are sent as components, with no json to reuse, so they are measured
+      bytes = (long) MessageBudget.measure(optimized, Integer.MAX_VALUE) * count;
+      if(priority != MessagePriority.HIGH && !account.admit(bytes, () -> sendActionBar(list, component, optimized, priority, account, prepared))) {
+        return;
+      }
+    }
+    TrafficCapture.record(component, TrafficCapture.Channel.ACTION_BAR, count);
+    for(final Iterator<Adapter> it = adapters().actionBar.iterator(); it.hasNext() && !list.isEmpty(); ) {
+      it.next().sendActionBar(list, optimized);
+    }
+    if(account != null) {
+      account.record(count, bytes, System.nanoTime() - start);
+    }
+  }
+
+  /*
+   * Sends the parts of a message, which is captured as component if there is one.
+   * The message is recorded to history under id once it is sent, which may be after it was deferred.
+   * prepared is the time already spent preparing the message, which is accounted along with the send.
+   */
+  private static long sendJson(final List<CommandSender> list, final @Nullable Component component, final String[] json, final MessagePriority priority, final @Nullable ChatHistory history, final long id, final SendAccounting.@Nullable Account account, final long prepared) {
+    final int count = list.size();
+    final long start = account == null ? 0 : System.nanoTime() - prepared;
+    long bytes = 0;
+    if(account != null) {
+      for(final String part : json) {
+        bytes += MessageBudget.length(part);
+      }
+      bytes *= count;
+      if(priority != MessagePriority.HIGH && !account.admit(bytes, () -> sendJson(list, component, json, priority, history, id, account, prepared))) {
+        return id;
+      }
+    }
+    if(component != null) {
+      TrafficCapture.record(component, TrafficCapture.Channel.CHAT, count);
+    } else {
+      for(final String part : json) {
+        TrafficCapture.record(part, TrafficCapture.Channel.CHAT, count);
+      }
+    }
+    if(history != null) {
+      history.record(id, list, json);
+    }
+    for(int i = 0; i < json.length; i++) {
+      // adapters remove the viewers they send to, so every part but the last needs its own list
+      deliverJson(i == json.length - 1 ? list : new ArrayList<>(list), json[i]);
+    }
+    if(account != null) {
+      account.record(count, bytes, System.nanoTime() - start);
+    }
+    return id;
+  }
+
+  private static String[] json(final List<Component> components) {
+    final String[] json = new String[components.size()];
+    for(int i = 0; i < json.length; i++) {
+      json[i] = GsonComponentSerializer.INSTANCE.serialize(components.get(i));
+    }
+    return json;
+  }
+
+  static void sendJson(final Iterable<? extends CommandSender> viewers, final String json) {
+    if(MessageBudget.enabled() && MessageBudget.length(json) > MessageBudget.limit()) {
+      sendComponent(viewers, GsonComponentSerializer.INSTANCE.deserialize(json), false, MessagePriority.NORMAL);
+      return;
+    }
+    final ChatHistory history = ChatHistory.installed();
+    sendJson(viewers(viewers, MessagePriority.NORMAL), null, new String[]{json}, MessagePriority.NORMAL, history, history == null ? 0 : history.nextId(), SendAccounting.current(), 0);
+  }
+
+  /*
+   * Sends json without capturing or recording it.
+   */
+  static void deliverJson(final List<CommandSender> list, final String json) {
+    for(final Iterator<Adapter> it = adapters().chat.iterator(); it.hasNext() && !list.isEmpty(); ) {
+      it.next().sendJsonMessage(list, json);
+    }
+  }
+
+  static void sendPlayerListHeaderAndFooter(final Iterable<? extends Player> viewers, final Component header, final Component footer) {
+    if(!CraftBukkitAdapter.playerListSupported()) {
+      return;
+    }
+    final long headerFingerprint = ComponentFingerprint.of(header);
+    final long footerFingerprint = ComponentFingerprint.of(footer);
+    Object packet = null;
+    for(final Player viewer : viewers) {
+      final long[] last = PLAYER_LISTS.get(viewer);
+      if(last != null && last[0] == headerFingerprint && last[1] == footerFingerprint) {
+        continue;
+      }
+      if(packet == null) {
+        // animated headers and footers usually cycle through a few frames
+        final long key = headerFingerprint * 31 + footerFingerprint;
+        packet = PLAYER_LIST_PACKETS.getIfPresent(key);
+        if(packet == null) {
+          packet = CraftBukkitAdapter.createPlayerListPacket(ComponentOptimizer.apply(header), ComponentOptimizer.apply(footer));
+          PLAYER_LIST_PACKETS.put(key, packet);
+        }
+      }
+      try {
+        CraftBukkitAdapter.sendPacket(packet, viewer);
+      } catch(final Exception e) {
+        e.printStackTrace();
+        continue;
+      }
+      // only recorded once sent, so a viewer who could not be sent to is sent to again next time
+      PLAYER_LISTS.put(viewer, new long[]{headerFingerprint, footerFingerprint});
+    }
+  }
+
+  static void invalidatePlayerListHeaderAndFooter(final Player viewer) {
+    PLAYER_LISTS.remove(viewer);
+  }
+
+  static void openBook(final Iterable<? extends Player> viewers, final String title, final String author, final List<? extends Component> pages) {
+    final Method openBook = OPEN_BOOK.get().orElse(null);
+    if(openBook == null) {
+      return; // the server cannot open books
+    }
+    final BookKey key = new BookKey(title, author, pages);
+    ItemStack book = BOOKS.getIfPresent(key);
+    if(book == null) {
+      book = CraftBukkitAdapter.encodeItem(createBook(title, author, pages));
+      BOOKS.put(key, book);
+    }
+    for(final Player viewer : viewers) {
+      try {
+        openBook.invoke(viewer, book);
+      } catch(final IllegalAccessException | InvocationTargetException e) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  private static ItemStack createBook(final String title, final String author, final List<? extends Component> pages) {
+    final List<Component> optimized = new ArrayList<>(pages.size());
+    for(final Component page : pages) {
+      optimized.add(ComponentOptimizer.apply(page));
+    }
+    final ItemStack book = new ItemStack(Material.WRITTEN_BOOK);
+    final BookMeta meta = (BookMeta) book.getItemMeta();
+    meta.setTitle(title);
+    meta.setAuthor(author);
+    if(!CraftBukkitAdapter.setBookPages(meta, optimized)) {
+      if(isSpigotAdapterSupported()) {
+        final List<BaseComponent[]> components = new ArrayList<>(optimized.size());
+        for(final Component page : optimized) {
+          components.add(SpigotAdapter.toBungeeCord(page));
+        }
+        meta.spigot().setPages(components);
+      } else {
+        final List<String> legacy = new ArrayList<>(optimized.size());
+        for(final Component page : optimized) {
+          legacy.add(LegacyComponentSerializer.INSTANCE.serialize(page));
+        }
+        meta.setPages(legacy);
+      }
+    }
+    book.setItemMeta(meta);
+    return book;
+  }
+
+  private static List<CommandSender> viewers(final Iterable<? extends CommandSender> viewers, final MessagePriority priority) {
+    // adapters remove viewers with List#removeIf, which is linear for an ArrayList
+    final List<CommandSender> list = new ArrayList<>();
+    Iterables.addAll(list, viewers); // a collection is copied in bulk
+    if(priority != MessagePriority.HIGH && Backpressure.enabled()) {
+      list.removeIf(viewer -> viewer instanceof Player && !CraftBukkitAdapter.accepts((Player) viewer, priority));
+    }
+    return list;
+  }
+
+  private static final class BookKey {
+    private final String title;
+    private final String author;
+    private final List<Component> pages;
+    private final int hashCode;
+
+    BookKey(final String title, final String author, final List<? extends Component> pages) {
+      this.title = title;
+      this.author = author;
+      this.pages = ImmutableList.copyOf(pages);
+      // pages are hashed by their cached fingerprints, rather than walking every page
+      int hashCode = title.hashCode() * 31 + author.hashCode();
+      for(final Component page : this.pages) {
+        hashCode = hashCode * 31 + Long.hashCode(ComponentFingerprint.of(page));
+      }
+      this.hashCode = hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if(this == other) {
+        return true;
+      }
+      if(!(other instanceof BookKey)) {
+        return false;
+      }
+      final BookKey that = (BookKey) other;
+      return this.hashCode == that.hashCode
+        && this.title.equals(that.title)
+        && this.author.equals(that.author)
+        && this.pages.equals(that.pages);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hashCode;
+    }
+  }
+
+  private static final class Adapters {
+    final List<Adapter> chat;
+    final List<Adapter> actionBar;
+    final List<Adapter> registered;
+
+    Adapters(final List<Adapter> adapters, final List<Adapter> registered) {
+      this.registered = registered;
+      this.chat = withCapability(adapters, Adapter.Capability.CHAT);
+      this.actionBar = withCapability(adapters, Adapter.Capability.ACTION_BAR);
+    }
+  }
+}
@@ -0,0 +1,377 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter.bukkit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import net.kyori.text.adapter.Backpressure;
+import net.kyori.text.adapter.MessagePriority;
+import net.kyori.text.adapter.SendPipeline;
+import net.kyori.text.format.TextColor;
+import net.kyori.text.serializer.gson.GsonComponentSerializer;
+import net.minecraft.server.v1_14_R1.PacketPlayOutChat;
+import net.minecraft.server.v1_14_R1.PlayerConnection;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.craftbukkit.v1_14_R1.CraftServer;
+import org.bukkit.craftbukkit.v1_14_R1.entity.CraftPlayer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Broadcasts through the adapter chain to thousands of simulated players, which join and quit between broadcasts.
+ *
+ * <p>The server, players and their connections are stand-ins, found by the CraftBukkit adapter just as it finds
+ * a real server's. Allocation and latency are checked against the baselines in {@code broadcast-baselines.properties},
+ * which should be updated when a change is expected to move them. Latency is only checked when the
+ * {@code text.benchmarks} system property is {@code true}.</p>
+ *
+ * <p>Broadcasts are also sent from several threads at once, writing directly and through a
+ * {@link SendPipeline#executor(java.util.concurrent.Executor) send executor}, to compare the two.</p>
+ */
+class BroadcastLoadTest {
+  private static final int VIEWERS = 2000;
+  private static final int CHURN = 100;
+  private static final int WARMUP = 300;
+  private static final int BROADCASTS = 500;
+  // threads broadcasting at once, and threads writing for them with a send executor
+  private static final int SENDERS = 8;
+  private static final int WRITERS = 4;
+  // latency depends on the machine, so it is only checked when asked for
+  private static final String BENCHMARKS = "text.benchmarks";
+  private static final CraftServer SERVER = new CraftServer();
+  private static final Random RANDOM = new Random(42);
+  private static int joined;
+
+  @BeforeAll
+  static void start() {
+    Bukkit.setServer(SERVER);
+    Backpressure.enabled(true);
+    for(int i = 0; i < VIEWERS; i++) {
+      join();
+    }
+  }
+
+  @AfterAll
+  static void stop() {
+    Backpressure.enabled(false);
+  }
+
+  @Test
+  void testDelivery() {
+    final List<CraftPlayer> offline = new ArrayList<>();
+    for(int round = 0; round < 50; round++) {
+      offline.addAll(churn());
+      final List<CraftPlayer> online = new ArrayList<>(SERVER.getOnlinePlayers());
+      for(final CraftPlayer player : online) {
+        player.getHandle().playerConnection.networkManager.backedUp(RANDOM.nextInt(10) == 0);
+      }
+      final Map<CraftPlayer, Integer> before = received(online, offline);
+
+      final Component message = message(round);
+      TextAdapter.sendMessage(SERVER.getOnlinePlayers(), message);
+      final String json = GsonComponentSerializer.INSTANCE.serialize(message);
+      PacketPlayOutChat packet = null;
+      for(final CraftPlayer player : online) {
+        final PlayerConnection connection = player.getHandle().playerConnection;
+        assertEquals(before.get(player) + 1, connection.received(), player.getName());
+        final PacketPlayOutChat last = (PacketPlayOutChat) connection.last();
+        assertEquals(json, last.component().json());
+        if(packet == null) {
+          packet = last;
+        }
+        // built once and shared by every viewer
+        assertSame(packet, last);
+      }
+      for(final CraftPlayer player : offline) {
+        assertEquals((int) before.get(player), player.getHandle().playerConnection.received(), player.getName());
+      }
+
+      // low priority messages are dropped for players with a backed up connection
+      final Map<CraftPlayer, Integer> beforeLow = received(online, offline);
+      TextAdapter.sendMessage(SERVER.getOnlinePlayers(), message(-round), MessagePriority.LOW);
+      for(final CraftPlayer player : online) {
+        final boolean backedUp = !player.getHandle().playerConnection.networkManager.channel.isWritable();
+        assertEquals(beforeLow.get(player) + (backedUp ? 0 : 1), player.getHandle().playerConnection.received(), player.getName());
+      }
+      for(final CraftPlayer player : online) {
+        player.getHandle().playerConnection.networkManager.backedUp(false);
+      }
+    }
+  }
+
+  @Test
+  void testRegisteredAdapter() {
+    final CraftPlayer player = SERVER.getOnlinePlayers().iterator().next();
+    final List<CommandSender> handled = new ArrayList<>();
+    final Adapter adapter = new Adapter() {
+      @Override
+      public int priority() {
+        return Integer.MAX_VALUE;
+      }
+
+      @Override
+      public void sendMessage(final List<? extends CommandSender> viewers, final Component component) {
+        if(viewers.remove(player)) {
+          handled.add(player);
+        }
+      }
+
+      @Override
+      public void sendActionBar(final List<? extends CommandSender> viewers, final Component component) {
+      }
+    };
+    final PlayerConnection connection = player.getHandle().playerConnection;
+    final int before = connection.received();
+    TextAdapter.registerAdapter(adapter);
+    try {
+      TextAdapter.sendMessage(player, message(0));
+      assertEquals(Collections.singletonList(player), handled);
+      assertEquals(before, connection.received());
+    } finally {
+      TextAdapter.unregisterAdapter(adapter);
+    }
+    TextAdapter.sendMessage(player, message(1));
+    assertEquals(1, handled.size());
+    assertEquals(before + 1, connection.received());
+  }
+
+  @Test
+  void testExecutorFallback() {
+    final CraftPlayer connected = new CraftPlayer("connected");
+    final CraftPlayer disconnected = new CraftPlayer("disconnected");
+    disconnected.getHandle().playerConnection = null;
+    final List<CommandSender> handled = new ArrayList<>();
+    final Adapter fallback = new Adapter() {
+      @Override
+      public void sendMessage(final List<? extends CommandSender> viewers, final Component component) {
+        handled.addAll(viewers);
+        viewers.clear();
+      }
+
+      @Override
+      public void sendActionBar(final List<? extends CommandSender> viewers, final Component component) {
+      }
+    };
+    final List<Runnable> writes = new ArrayList<>();
+    TextAdapter.registerAdapter(fallback);
+    SendPipeline.executor(writes::add);
+    try {
+      TextAdapter.sendMessage(Arrays.asList(connected, disconnected), message(0));
+      // the player without a connection fails before the write is dispatched, and falls back
+      assertEquals(Collections.singletonList(disconnected), handled);
+      assertEquals(0, connected.connection().received());
+      assertEquals(1, writes.size());
+      writes.get(0).run();
+      assertEquals(1, connected.connection().received());
+    } finally {
+      SendPipeline.executor(null);
+      TextAdapter.unregisterAdapter(fallback);
+    }
+  }
+
+  @Test
+  void testConcurrentSenders() throws Exception {
+    // every viewer receives every broadcast, whether written by the senders or by the executor
+    for(final boolean executor : new boolean[]{false, true}) {
+      final List<CraftPlayer> online = new ArrayList<>(SERVER.getOnlinePlayers());
+      final Map<CraftPlayer, Integer> before = received(online, Collections.emptyList());
+      broadcastConcurrently(executor, 10);
+      for(final CraftPlayer player : online) {
+        assertEquals(before.get(player) + SENDERS * 10, player.connection().received(), player.getName());
+      }
+    }
+  }
+
+  @Test
+  void testConcurrentLatency() throws Exception {
+    assumeTrue(Boolean.getBoolean(BENCHMARKS), "latency is only checked when " + BENCHMARKS + " is set");
+    broadcastConcurrently(false, WARMUP / SENDERS);
+    broadcastConcurrently(true, WARMUP / SENDERS);
+    // the time for every broadcast to be written, divided between them
+    assertWithin("concurrent-direct-micros", broadcastConcurrently(false, BROADCASTS / SENDERS) / (BROADCASTS / SENDERS * SENDERS) / 1000);
+    assertWithin("concurrent-executor-micros", broadcastConcurrently(true, BROADCASTS / SENDERS) / (BROADCASTS / SENDERS * SENDERS) / 1000);
+  }
+
+  @Test
+  void testAllocation() throws IOException {
+    final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    assumeTrue(threads instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported(), "allocation is not measurable on this runtime");
+    final com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+    final long thread = Thread.currentThread().getId();
+
+    warmUp();
+    final long[] allocated = new long[BROADCASTS];
+    for(int i = 0; i < BROADCASTS; i++) {
+      if(i % 10 == 0) {
+        churn();
+      }
+      final Component message = message(i);
+      final long bytesBefore = allocation.getThreadAllocatedBytes(thread);
+      TextAdapter.sendMessage(SERVER.getOnlinePlayers(), message);
+      allocated[i] = allocation.getThreadAllocatedBytes(thread) - bytesBefore;
+    }
+    Arrays.sort(allocated);
+
+    // the median, as maps keyed by player occasionally resize as players join
+    assertWithin("allocated-bytes-per-broadcast", allocated[BROADCASTS / 2]);
+  }
+
+  @Test
+  void testLatency() throws IOException {
+    assumeTrue(Boolean.getBoolean(BENCHMARKS), "latency is only checked when " + BENCHMARKS + " is set");
+    warmUp();
+    final long[] nanos = new long[BROADCASTS];
+    for(int i = 0; i < BROADCASTS; i++) {
+      if(i % 10 == 0) {
+        churn();
+      }
+      final Component message = message(i);
+      final long start = System.nanoTime();
+      TextAdapter.sendMessage(SERVER.getOnlinePlayers(), message);
+      nanos[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+
+    assertWithin("p50-micros", nanos[BROADCASTS / 2] / 1000);
+    assertWithin("p99-micros", nanos[BROADCASTS * 99 / 100] / 1000);
+  }
+
+  /*
+   * Broadcasts from several threads at once, with writes run on the sending threads or on an executor.
+   * Returns the nanoseconds taken until every write was run.
+   */
+  private static long broadcastConcurrently(final boolean executor, final int rounds) throws Exception {
+    final ExecutorService writers = executor ? Executors.newFixedThreadPool(WRITERS) : null;
+    final ExecutorService senders = Executors.newFixedThreadPool(SENDERS);
+    final CountDownLatch start = new CountDownLatch(1);
+    SendPipeline.executor(writers);
+    try {
+      final List<Future<?>> sent = new ArrayList<>(SENDERS);
+      for(int i = 0; i < SENDERS; i++) {
+        sent.add(senders.submit(() -> {
+          start.await();
+          for(int round = 0; round < rounds; round++) {
+            TextAdapter.sendMessage(SERVER.getOnlinePlayers(), message(round));
+          }
+          return null;
+        }));
+      }
+      final long begin = System.nanoTime();
+      start.countDown();
+      for(final Future<?> future : sent) {
+        future.get();
+      }
+      if(writers != null) {
+        writers.shutdown();
+        assertTrue(writers.awaitTermination(1, TimeUnit.MINUTES));
+      }
+      return System.nanoTime() - begin;
+    } finally {
+      SendPipeline.executor(null);
+      senders.shutdown();
+      if(writers != null) {
+        writers.shutdownNow();
+      }
+    }
+  }
+
+  private static void warmUp() {
+    for(int i = 0; i < WARMUP; i++) {
+      TextAdapter.sendMessage(SERVER.getOnlinePlayers(), message(i));
+    }
+  }
+
+  private static void assertWithin(final String key, final long measured) throws IOException {
+    final Properties baselines = new Properties();
+    try(final InputStream is = BroadcastLoadTest.class.getResourceAsStream("broadcast-baselines.properties")) {
+      baselines.load(is);
+    }
+    final long baseline = Long.parseLong(baselines.getProperty(key));
+    final double tolerance = Double.parseDouble(baselines.getProperty(key + ".tolerance"));
+    assertTrue(measured <= baseline * tolerance, key + " regressed to " + measured + ", baseline is " + baseline + " with a tolerance of " + tolerance);
+  }
+
+  private static Component message(final int round) {
+    return TextComponent.builder("Broadcast ", TextColor.GRAY)
+      .append(TextComponent.of("#" + round, TextColor.GOLD))
+      .append(TextComponent.of(" to " + VIEWERS + " players"))
+      .build();
+  }
+
+  private static Map<CraftPlayer, Integer> received(final List<CraftPlayer> online, final List<CraftPlayer> offline) {
+    final Map<CraftPlayer, Integer> received = new HashMap<>();
+    for(final CraftPlayer player : online) {
+      received.put(player, player.getHandle().playerConnection.received());
+    }
+    for(final CraftPlayer player : offline) {
+      received.put(player, player.getHandle().playerConnection.received());
+    }
+    return received;
+  }
+
+  /*
+   * Replaces random online players with new ones, returning the players who quit.
+   */
+  private static List<CraftPlayer> churn() {
+    final List<CraftPlayer> online = new ArrayList<>(SERVER.getOnlinePlayers());
+    final List<CraftPlayer> quit = new ArrayList<>(CHURN);
+    for(int i = 0; i < CHURN; i++) {
+      final CraftPlayer player = online.remove(RANDOM.nextInt(online.size()));
+      SERVER.quit(player);
+      quit.add(player);
+    }
+    for(int i = 0; i < CHURN; i++) {
+      join();
+    }
+    return quit;
+  }
+
+  private static void join() {
+    SERVER.join(new CraftPlayer("player" + joined++));
+  }
+}
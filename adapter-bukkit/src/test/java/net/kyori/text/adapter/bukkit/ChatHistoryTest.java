@@ -0,0 +1,177 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter.bukkit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import net.kyori.text.format.TextColor;
+import net.minecraft.server.v1_14_R1.PacketPlayOutChat;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.craftbukkit.v1_14_R1.CraftServer;
+import org.bukkit.craftbukkit.v1_14_R1.entity.CraftPlayer;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatHistoryTest {
+  @BeforeAll
+  static void start() {
+    if(Bukkit.getServer() == null) {
+      Bukkit.setServer(new CraftServer());
+    }
+  }
+
+  @Test
+  void testOrder() {
+    final ChatHistory.Ring ring = new ChatHistory.Ring(4, 64);
+    add(ring, 1, "a");
+    add(ring, 2, "bb");
+    add(ring, 3, "ccc");
+    assertEquals(Arrays.asList("a", "bb", "ccc"), ring.messages());
+  }
+
+  @Test
+  void testEvictByCount() {
+    final ChatHistory.Ring ring = new ChatHistory.Ring(2, 64);
+    add(ring, 1, "a");
+    add(ring, 2, "b");
+    add(ring, 3, "c");
+    assertEquals(Arrays.asList("b", "c"), ring.messages());
+  }
+
+  @Test
+  void testEvictByBytes() {
+    final ChatHistory.Ring ring = new ChatHistory.Ring(8, 10);
+    add(ring, 1, "aaaa");
+    add(ring, 2, "bbbb");
+    // does not fit at the end, so wraps to the start and evicts the first message
+    add(ring, 3, "cccc");
+    assertEquals(Arrays.asList("bbbb", "cccc"), ring.messages());
+    // wraps past the second message as well
+    add(ring, 4, "dddddddd");
+    assertEquals(Collections.singletonList("dddddddd"), ring.messages());
+  }
+
+  @Test
+  void testTooLarge() {
+    final ChatHistory.Ring ring = new ChatHistory.Ring(4, 4);
+    add(ring, 1, "aaa");
+    add(ring, 2, "bbbbb");
+    assertEquals(Collections.singletonList("aaa"), ring.messages());
+  }
+
+  @Test
+  void testRedact() {
+    final ChatHistory.Ring ring = new ChatHistory.Ring(4, 64);
+    add(ring, 1, "a");
+    // a message sent in two parts shares an id
+    add(ring, 2, "b1");
+    add(ring, 2, "b2");
+    add(ring, 3, "c");
+    assertTrue(ring.redact(2));
+    assertFalse(ring.redact(2));
+    assertFalse(ring.redact(4));
+    assertEquals(Arrays.asList("a", "c"), ring.messages());
+  }
+
+  @Test
+  void testRecordsSentJson() {
+    final CraftPlayer player = new CraftPlayer("history");
+    player.setOnline(true);
+    final ChatHistory history = ChatHistory.create(8, 1024);
+    final Component message = TextComponent.builder("Hello ", TextColor.GRAY)
+      .append(TextComponent.of("world", TextColor.GOLD))
+      .build();
+    final long id = history.sendMessage(Collections.singletonList(player), message);
+    final String sent = ((PacketPlayOutChat) player.connection().last()).component().json();
+
+    final int before = player.connection().received();
+    history.replay(player);
+    // the chat is cleared, then the message is resent exactly as it was first sent
+    assertEquals(before + 2, player.connection().received());
+    assertEquals(sent, ((PacketPlayOutChat) player.connection().last()).component().json());
+
+    assertTrue(history.redact(id));
+    // only the clear is sent
+    assertEquals(before + 3, player.connection().received());
+  }
+
+  @Test
+  void testReplayedTogether() {
+    final CraftPlayer first = new CraftPlayer("first");
+    final CraftPlayer second = new CraftPlayer("second");
+    final ChatHistory history = ChatHistory.create(8, 1024);
+    history.sendMessage(Arrays.asList(first, second), TextComponent.of("shared"));
+    final long id = history.sendMessage(Arrays.asList(first, second), TextComponent.of("redacted"));
+    assertTrue(history.redact(id));
+    // each message is created and parsed once for both players
+    assertEquals("{\"text\":\"shared\"}", ((PacketPlayOutChat) first.connection().last()).component().json());
+    assertSame(first.connection().last(), second.connection().last());
+  }
+
+  @Test
+  void testDeferredKeepsId() {
+    final CraftServer server = new CraftServer();
+    final Server previous = Bukkit.getServer();
+    Bukkit.setServer(server);
+    final CraftPlayer player = new CraftPlayer("deferred");
+    server.join(player);
+    final Plugin plugin = () -> "history";
+    SendAccounting.install(plugin);
+    try {
+      SendAccounting.policy(SendAccounting.Policy.DEFER);
+      SendAccounting.account(plugin).budget(1);
+      final ChatHistory history = ChatHistory.create(8, 1024);
+      final long[] ids = new long[2];
+      SendAccounting.attribute(plugin, () -> {
+        ids[0] = history.sendMessage(Collections.singletonList(player), TextComponent.of("sent"));
+        ids[1] = history.sendMessage(Collections.singletonList(player), TextComponent.of("deferred"));
+      });
+      assertEquals(1, player.connection().received());
+      assertTrue(ids[1] != 0 && ids[1] != ids[0]);
+      server.tick();
+      assertEquals(2, player.connection().received());
+      // recorded under the id it was given when it was deferred
+      assertTrue(history.redact(ids[1]));
+      assertEquals("{\"text\":\"sent\"}", ((PacketPlayOutChat) player.connection().last()).component().json());
+    } finally {
+      SendAccounting.uninstall();
+      SendAccounting.policy(SendAccounting.Policy.THROTTLE);
+      Bukkit.setServer(previous);
+    }
+  }
+
+  private static void add(final ChatHistory.Ring ring, final long id, final String message) {
+    ring.add(id, message.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter.bukkit;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import java.util.Collections;
+import net.kyori.text.Component;
+import net.kyori.text.KeybindComponent;
+import net.kyori.text.TextComponent;
+import net.kyori.text.TranslatableComponent;
+import net.kyori.text.event.ClickEvent;
+import net.kyori.text.event.HoverEvent;
+import net.kyori.text.format.TextColor;
+import net.kyori.text.format.TextDecoration;
+import net.minecraft.server.v1_14_R1.ChatBaseComponent;
+import net.minecraft.server.v1_14_R1.IChatBaseComponent;
+import net.minecraft.server.v1_14_R1.PacketPlayOutChat;
+import org.bukkit.Bukkit;
+import org.bukkit.craftbukkit.v1_14_R1.CraftServer;
+import org.bukkit.craftbukkit.v1_14_R1.entity.CraftPlayer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Components built directly into server components must match the json they would otherwise be parsed from.
+ */
+class ComponentTreeTest {
+  private static final JsonParser PARSER = new JsonParser();
+  private final CraftServer server = new CraftServer();
+  private final CraftPlayer player = new CraftPlayer("tree");
+  // sends through a history are serialized once and sent as json
+  private final ChatHistory history = ChatHistory.create(8, 4096);
+
+  @BeforeEach
+  void join() {
+    Bukkit.setServer(this.server);
+    this.server.join(this.player);
+  }
+
+  @Test
+  void testText() {
+    assertSameTree(TextComponent.of("hello"));
+  }
+
+  @Test
+  void testStyle() {
+    assertSameTree(TextComponent.builder("styled", TextColor.DARK_AQUA)
+      .decoration(TextDecoration.BOLD, true)
+      .decoration(TextDecoration.ITALIC, false)
+      .decoration(TextDecoration.OBFUSCATED, true)
+      .decoration(TextDecoration.STRIKETHROUGH, true)
+      .decoration(TextDecoration.UNDERLINED, true)
+      .insertion("inserted")
+      .build());
+  }
+
+  @Test
+  void testEvents() {
+    assertSameTree(TextComponent.builder("click")
+      .clickEvent(ClickEvent.of(ClickEvent.Action.RUN_COMMAND, "/help"))
+      .hoverEvent(HoverEvent.of(HoverEvent.Action.SHOW_TEXT, TextComponent.of("hover", TextColor.RED)))
+      .build());
+  }
+
+  @Test
+  void testChildren() {
+    assertSameTree(TextComponent.builder("parent ", TextColor.GRAY)
+      .append(TextComponent.of("child", TextColor.GOLD))
+      .append(TextComponent.builder(" nested").append(TextComponent.of(" deeper", TextColor.GREEN)).build())
+      .build());
+  }
+
+  @Test
+  void testTranslatable() {
+    assertSameTree(TranslatableComponent.of("chat.type.text", TextColor.WHITE, TextComponent.of("name", TextColor.YELLOW), TextComponent.of("message")));
+  }
+
+  @Test
+  void testUnsupportedFallsBackToJson() {
+    final Component component = TextComponent.builder("press ").append(KeybindComponent.of("key.jump")).build();
+    TextAdapter.sendComponent(this.player, component);
+    final IChatBaseComponent sent = this.last();
+    assertFalse(sent instanceof ChatBaseComponent);
+    assertEquals(this.sentAsJson(component), parse(sent.json()));
+  }
+
+  private void assertSameTree(final Component component) {
+    TextAdapter.sendComponent(this.player, component);
+    final IChatBaseComponent tree = this.last();
+    assertTrue(tree instanceof ChatBaseComponent, "built directly");
+    assertEquals(this.sentAsJson(component), parse(tree.json()));
+  }
+
+  private JsonElement sentAsJson(final Component component) {
+    this.history.sendMessage(Collections.singletonList(this.player), component);
+    final IChatBaseComponent json = this.last();
+    assertFalse(json instanceof ChatBaseComponent, "parsed from json");
+    return parse(json.json());
+  }
+
+  private IChatBaseComponent last() {
+    return ((PacketPlayOutChat) this.player.connection().last()).component();
+  }
+
+  private static JsonElement parse(final String json) {
+    return PARSER.parse(json);
+  }
+}
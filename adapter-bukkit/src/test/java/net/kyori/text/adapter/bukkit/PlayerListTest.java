@@ -0,0 +1,91 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter.bukkit;
+
+import java.util.Arrays;
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import net.kyori.text.serializer.gson.GsonComponentSerializer;
+import net.minecraft.server.v1_14_R1.PacketPlayOutPlayerListHeaderFooter;
+import org.bukkit.Bukkit;
+import org.bukkit.craftbukkit.v1_14_R1.CraftServer;
+import org.bukkit.craftbukkit.v1_14_R1.entity.CraftPlayer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PlayerListTest {
+  private static final Component HEADER = TextComponent.of("header");
+  private static final Component FOOTER = TextComponent.of("footer");
+  private final CraftServer server = new CraftServer();
+  private final CraftPlayer player = new CraftPlayer("listed");
+
+  @BeforeEach
+  void join() {
+    Bukkit.setServer(this.server);
+    this.server.join(this.player);
+  }
+
+  @Test
+  void testSent() {
+    TextAdapter.sendPlayerListHeaderAndFooter(this.player, HEADER, FOOTER);
+    assertEquals(1, this.player.connection().received());
+    final PacketPlayOutPlayerListHeaderFooter packet = (PacketPlayOutPlayerListHeaderFooter) this.player.connection().last();
+    assertEquals(GsonComponentSerializer.INSTANCE.serialize(HEADER), packet.header().json());
+    assertEquals(GsonComponentSerializer.INSTANCE.serialize(FOOTER), packet.footer().json());
+  }
+
+  @Test
+  void testUnchangedSkipped() {
+    TextAdapter.sendPlayerListHeaderAndFooter(this.player, HEADER, FOOTER);
+    TextAdapter.sendPlayerListHeaderAndFooter(this.player, TextComponent.of("header"), FOOTER);
+    assertEquals(1, this.player.connection().received());
+    TextAdapter.sendPlayerListHeaderAndFooter(this.player, HEADER, TextComponent.of("changed"));
+    assertEquals(2, this.player.connection().received());
+  }
+
+  @Test
+  void testInvalidate() {
+    TextAdapter.sendPlayerListHeaderAndFooter(this.player, HEADER, FOOTER);
+    // as if the header and footer were changed without the adapter
+    TextAdapter.invalidatePlayerListHeaderAndFooter(this.player);
+    TextAdapter.sendPlayerListHeaderAndFooter(this.player, HEADER, FOOTER);
+    assertEquals(2, this.player.connection().received());
+  }
+
+  @Test
+  void testFailedViewer() {
+    final CraftPlayer disconnected = new CraftPlayer("disconnected");
+    this.server.join(disconnected);
+    disconnected.getHandle().playerConnection = null;
+    TextAdapter.sendPlayerListHeaderAndFooter(Arrays.asList(disconnected, this.player), HEADER, FOOTER);
+    // later viewers are still sent to
+    assertEquals(1, this.player.connection().received());
+    // and the viewer who failed is sent to once they can be
+    disconnected.getHandle().playerConnection = this.player.getHandle().playerConnection;
+    TextAdapter.sendPlayerListHeaderAndFooter(disconnected, HEADER, FOOTER);
+    assertEquals(2, this.player.connection().received());
+  }
+}
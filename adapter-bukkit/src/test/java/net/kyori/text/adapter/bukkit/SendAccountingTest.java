@@ -0,0 +1,131 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter.bukkit;
+
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import net.kyori.text.serializer.gson.GsonComponentSerializer;
+import net.minecraft.server.v1_14_R1.PacketPlayOutChat;
+import org.bukkit.Bukkit;
+import org.bukkit.craftbukkit.v1_14_R1.CraftServer;
+import org.bukkit.craftbukkit.v1_14_R1.entity.CraftPlayer;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SendAccountingTest {
+  private static int plugins;
+  private final CraftServer server = new CraftServer();
+  private final CraftPlayer player = new CraftPlayer("accounted");
+  // each test has its own account, as accounts are never removed
+  private final String name = "plugin" + plugins++;
+  private final Plugin plugin = () -> this.name;
+
+  @BeforeEach
+  void install() {
+    Bukkit.setServer(this.server);
+    this.server.join(this.player);
+    SendAccounting.install(this.plugin);
+    SendAccounting.policy(SendAccounting.Policy.DEFER);
+    SendAccounting.account(this.plugin).budget(1);
+  }
+
+  @AfterEach
+  void uninstall() {
+    SendAccounting.uninstall();
+    SendAccounting.policy(SendAccounting.Policy.THROTTLE);
+    SendAccounting.maxDeferred(1024);
+  }
+
+  @Test
+  void testAccounted() {
+    final Component message = TextComponent.of("hello");
+    SendAccounting.attribute(this.plugin, () -> TextAdapter.sendMessage(this.player, message));
+    final SendAccounting.Account account = SendAccounting.account(this.plugin);
+    assertEquals(1, account.messages());
+    assertEquals(1, account.viewers());
+    assertEquals(GsonComponentSerializer.INSTANCE.serialize(message).length(), account.bytes());
+    assertTrue(account.nanos() > 0);
+  }
+
+  @Test
+  void testDeferredUntilTick() {
+    this.send(3);
+    final SendAccounting.Account account = SendAccounting.account(this.plugin);
+    // the first message of a tick is always sent
+    assertEquals(1, this.player.connection().received());
+    assertEquals(2, account.deferred());
+    this.server.tick();
+    // one more fits the next tick, and the other is deferred again
+    assertEquals(2, this.player.connection().received());
+    assertEquals(3, account.deferred());
+    this.server.tick();
+    assertEquals(3, this.player.connection().received());
+    assertEquals("{\"text\":\"message 2\"}", ((PacketPlayOutChat) this.player.connection().last()).component().json());
+    assertEquals(0, account.throttled());
+  }
+
+  @Test
+  void testUninstallSendsDeferred() {
+    this.send(3);
+    assertEquals(1, this.player.connection().received());
+    SendAccounting.uninstall();
+    assertEquals(3, this.player.connection().received());
+    assertEquals(0, SendAccounting.account(this.plugin).throttled());
+    assertEquals(3, SendAccounting.account(this.plugin).messages());
+  }
+
+  @Test
+  void testDeferredCap() {
+    SendAccounting.maxDeferred(1);
+    this.send(3);
+    final SendAccounting.Account account = SendAccounting.account(this.plugin);
+    assertEquals(1, account.deferred());
+    assertEquals(1, account.throttled());
+    this.server.tick();
+    assertEquals(2, this.player.connection().received());
+  }
+
+  @Test
+  void testThrottle() {
+    SendAccounting.policy(SendAccounting.Policy.THROTTLE);
+    this.send(3);
+    assertEquals(1, this.player.connection().received());
+    assertEquals(2, SendAccounting.account(this.plugin).throttled());
+    SendAccounting.uninstall();
+    assertEquals(1, this.player.connection().received());
+  }
+
+  private void send(final int messages) {
+    SendAccounting.attribute(this.plugin, () -> {
+      for(int i = 0; i < messages; i++) {
+        TextAdapter.sendMessage(this.player, TextComponent.of("message " + i));
+      }
+    });
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter.bukkit;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import net.kyori.text.format.TextColor;
+import net.kyori.text.serializer.gson.GsonComponentSerializer;
+import net.minecraft.server.v1_14_R1.Packet;
+import net.minecraft.server.v1_14_R1.PacketPlayOutScoreboardDisplayObjective;
+import net.minecraft.server.v1_14_R1.PacketPlayOutScoreboardObjective;
+import net.minecraft.server.v1_14_R1.PacketPlayOutScoreboardScore;
+import net.minecraft.server.v1_14_R1.PacketPlayOutScoreboardTeam;
+import net.minecraft.server.v1_14_R1.ScoreboardServer;
+import org.bukkit.Bukkit;
+import org.bukkit.craftbukkit.v1_14_R1.CraftServer;
+import org.bukkit.craftbukkit.v1_14_R1.entity.CraftPlayer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SidebarTest {
+  private static final Component TITLE = TextComponent.of("title", TextColor.GOLD);
+  private final CraftServer server = new CraftServer();
+  private final CraftPlayer player = new CraftPlayer("sidebar");
+  private final Sidebar sidebar = Sidebar.create();
+  private List<Packet> sent;
+
+  @BeforeEach
+  void join() {
+    Bukkit.setServer(this.server);
+    this.server.join(this.player);
+    this.sent = this.player.connection().record();
+  }
+
+  @Test
+  void testSupported() {
+    assertTrue(Sidebar.supported());
+  }
+
+  @Test
+  void testFirstRender() {
+    this.sidebar.render(this.player, TITLE, lines("a", "b", "c"));
+    // the objective, its display slot, then a team and a score for each line
+    assertEquals(8, this.sent.size());
+    final PacketPlayOutScoreboardObjective objective = (PacketPlayOutScoreboardObjective) this.sent.get(0);
+    assertEquals(0, objective.mode());
+    assertEquals(GsonComponentSerializer.INSTANCE.serialize(TITLE), objective.displayName().json());
+    final PacketPlayOutScoreboardDisplayObjective display = (PacketPlayOutScoreboardDisplayObjective) this.sent.get(1);
+    assertEquals(objective.name(), display.name());
+    assertEquals(1, display.slot());
+    for(int i = 0; i < 3; i++) {
+      final PacketPlayOutScoreboardTeam team = (PacketPlayOutScoreboardTeam) this.sent.get(2 + i * 2);
+      final PacketPlayOutScoreboardScore score = (PacketPlayOutScoreboardScore) this.sent.get(3 + i * 2);
+      assertEquals(0, team.mode());
+      assertEquals(Collections.singletonList(score.entry()), team.players());
+      assertEquals(ScoreboardServer.Action.CHANGE, score.action());
+      // lines are ordered top to bottom
+      assertEquals(-i, score.score());
+    }
+  }
+
+  @Test
+  void testUnchangedRenderSendsNothing() {
+    this.sidebar.render(this.player, TITLE, lines("a", "b", "c"));
+    this.sent.clear();
+    // equal, but not the same, components
+    this.sidebar.render(this.player, TextComponent.of("title", TextColor.GOLD), lines("a", "b", "c"));
+    assertEquals(Collections.emptyList(), this.sent);
+  }
+
+  @Test
+  void testOnlyChangesSent() {
+    this.sidebar.render(this.player, TITLE, lines("a", "b", "c"));
+    this.sent.clear();
+    this.sidebar.render(this.player, TextComponent.of("renamed"), lines("a", "changed", "c"));
+    assertEquals(2, this.sent.size());
+    assertEquals(2, ((PacketPlayOutScoreboardObjective) this.sent.get(0)).mode());
+    final PacketPlayOutScoreboardTeam team = (PacketPlayOutScoreboardTeam) this.sent.get(1);
+    assertEquals(2, team.mode());
+    assertTrue(team.name().endsWith(".1"));
+    assertEquals(GsonComponentSerializer.INSTANCE.serialize(TextComponent.of("changed")), team.prefix().json());
+  }
+
+  @Test
+  void testLinesAddedAndRemoved() {
+    this.sidebar.render(this.player, TITLE, lines("a", "b", "c"));
+    this.sent.clear();
+    this.sidebar.render(this.player, TITLE, lines("a"));
+    // a score and a team removed for each line
+    assertEquals(4, this.sent.size());
+    assertEquals(ScoreboardServer.Action.REMOVE, ((PacketPlayOutScoreboardScore) this.sent.get(0)).action());
+    assertEquals(1, ((PacketPlayOutScoreboardTeam) this.sent.get(1)).mode());
+    this.sent.clear();
+    this.sidebar.render(this.player, TITLE, lines("a", "b"));
+    assertEquals(2, this.sent.size());
+    assertEquals(0, ((PacketPlayOutScoreboardTeam) this.sent.get(0)).mode());
+  }
+
+  @Test
+  void testSharedBetweenPlayers() {
+    final CraftPlayer other = new CraftPlayer("other");
+    this.server.join(other);
+    this.sidebar.render(Arrays.asList(this.player, other), TITLE, lines("a"));
+    assertSame(this.player.connection().last(), other.connection().last());
+  }
+
+  @Test
+  void testFailedPlayerRenderedAgain() {
+    final CraftPlayer failing = new CraftPlayer("failing");
+    this.server.join(failing);
+    failing.getHandle().playerConnection = null;
+    this.sidebar.render(Arrays.asList(failing, this.player), TITLE, lines("a", "b"));
+    // later players are still rendered to
+    assertEquals(6, this.sent.size());
+    // nothing was stored for the player who failed, so they are sent the whole sidebar once they can be
+    failing.getHandle().playerConnection = this.player.getHandle().playerConnection;
+    this.sent.clear();
+    this.sidebar.render(failing, TITLE, lines("a", "b"));
+    assertEquals(6, this.sent.size());
+    assertEquals(0, ((PacketPlayOutScoreboardObjective) this.sent.get(0)).mode());
+  }
+
+  @Test
+  void testRemove() {
+    this.sidebar.render(this.player, TITLE, lines("a", "b"));
+    this.sent.clear();
+    this.player.setOnline(true);
+    this.sidebar.remove(this.player);
+    assertEquals(3, this.sent.size());
+    assertEquals(1, ((PacketPlayOutScoreboardObjective) this.sent.get(2)).mode());
+    // removed sidebars are created again on the next render
+    this.sent.clear();
+    this.sidebar.render(this.player, TITLE, lines("a"));
+    assertEquals(0, ((PacketPlayOutScoreboardObjective) this.sent.get(0)).mode());
+  }
+
+  private static List<Component> lines(final String... lines) {
+    final Component[] components = new Component[lines.length];
+    for(int i = 0; i < lines.length; i++) {
+      components[i] = TextComponent.of(lines[i]);
+    }
+    return Arrays.asList(components);
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.minecraft.server.v1_14_R1;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A stand-in for a server chat component built directly, which is written to json in the
+ * same order the component serializer writes it.
+ */
+public abstract class ChatBaseComponent implements IChatBaseComponent {
+  private static final JsonParser PARSER = new JsonParser();
+  private final List<IChatBaseComponent> siblings = new ArrayList<>();
+  private ChatModifier modifier;
+
+  @Override
+  public IChatBaseComponent addSibling(final IChatBaseComponent sibling) {
+    this.siblings.add(sibling);
+    return this;
+  }
+
+  @Override
+  public IChatBaseComponent setChatModifier(final ChatModifier modifier) {
+    this.modifier = modifier;
+    return this;
+  }
+
+  @Override
+  public String json() {
+    final JsonObject json = new JsonObject();
+    this.content(json);
+    if(!this.siblings.isEmpty()) {
+      final JsonArray extra = new JsonArray();
+      for(final IChatBaseComponent sibling : this.siblings) {
+        extra.add(PARSER.parse(sibling.json()));
+      }
+      json.add("extra", extra);
+    }
+    if(this.modifier != null) {
+      this.modifier.style(json);
+    }
+    return json.toString();
+  }
+
+  abstract void content(final JsonObject json);
+
+  static JsonObject parse(final IChatBaseComponent component) {
+    return PARSER.parse(component.json()).getAsJsonObject();
+  }
+}
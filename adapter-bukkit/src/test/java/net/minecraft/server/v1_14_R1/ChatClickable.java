@@ -0,0 +1,55 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.minecraft.server.v1_14_R1;
+
+import com.google.gson.JsonObject;
+import java.util.Locale;
+
+/**
+ * A stand-in for the server's click event.
+ */
+public class ChatClickable {
+  private final EnumClickAction action;
+  private final String value;
+
+  public ChatClickable(final EnumClickAction action, final String value) {
+    this.action = action;
+    this.value = value;
+  }
+
+  JsonObject json() {
+    final JsonObject json = new JsonObject();
+    json.addProperty("action", this.action.name().toLowerCase(Locale.ROOT));
+    json.addProperty("value", this.value);
+    return json;
+  }
+
+  public enum EnumClickAction {
+    OPEN_URL,
+    OPEN_FILE,
+    RUN_COMMAND,
+    SUGGEST_COMMAND,
+    CHANGE_PAGE;
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.minecraft.server.v1_14_R1;
+
+import com.google.gson.JsonObject;
+import java.util.Locale;
+
+/**
+ * A stand-in for the server's component style.
+ */
+public class ChatModifier {
+  private EnumChatFormat color;
+  private Boolean obfuscated;
+  private Boolean bold;
+  private Boolean strikethrough;
+  private Boolean underlined;
+  private Boolean italic;
+  private ChatClickable clickEvent;
+  private ChatHoverable hoverEvent;
+  private String insertion;
+
+  public ChatModifier setColor(final EnumChatFormat color) {
+    this.color = color;
+    return this;
+  }
+
+  public ChatModifier setRandom(final Boolean obfuscated) {
+    this.obfuscated = obfuscated;
+    return this;
+  }
+
+  public ChatModifier setBold(final Boolean bold) {
+    this.bold = bold;
+    return this;
+  }
+
+  public ChatModifier setStrikethrough(final Boolean strikethrough) {
+    this.strikethrough = strikethrough;
+    return this;
+  }
+
+  public ChatModifier setUnderline(final Boolean underlined) {
+    this.underlined = underlined;
+    return this;
+  }
+
+  public ChatModifier setItalic(final Boolean italic) {
+    this.italic = italic;
+    return this;
+  }
+
+  public ChatModifier setChatClickable(final ChatClickable clickEvent) {
+    this.clickEvent = clickEvent;
+    return this;
+  }
+
+  public ChatModifier setChatHoverable(final ChatHoverable hoverEvent) {
+    this.hoverEvent = hoverEvent;
+    return this;
+  }
+
+  public ChatModifier setInsertion(final String insertion) {
+    this.insertion = insertion;
+    return this;
+  }
+
+  void style(final JsonObject json) {
+    if(this.color != null) {
+      json.addProperty("color", this.color.name().toLowerCase(Locale.ROOT));
+    }
+    if(this.obfuscated != null) {
+      json.addProperty("obfuscated", this.obfuscated);
+    }
+    if(this.bold != null) {
+      json.addProperty("bold", this.bold);
+    }
+    if(this.strikethrough != null) {
+      json.addProperty("strikethrough", this.strikethrough);
+    }
+    if(this.underlined != null) {
+      json.addProperty("underlined", this.underlined);
+    }
+    if(this.italic != null) {
+      json.addProperty("italic", this.italic);
+    }
+    if(this.clickEvent != null) {
+      json.add("clickEvent", this.clickEvent.json());
+    }
+    if(this.hoverEvent != null) {
+      json.add("hoverEvent", this.hoverEvent.json());
+    }
+    if(this.insertion != null) {
+      json.addProperty("insertion", this.insertion);
+    }
+  }
+}
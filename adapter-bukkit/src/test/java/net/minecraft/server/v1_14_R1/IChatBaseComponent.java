@@ -0,0 +1,57 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.minecraft.server.v1_14_R1;
+
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import java.lang.reflect.Type;
+
+/**
+ * A stand-in for a server chat component, which can be written back to json.
+ *
+ * <p>Components parsed from json keep the json they were created from, and cannot be modified.</p>
+ */
+public interface IChatBaseComponent {
+  String json();
+
+  default IChatBaseComponent addSibling(final IChatBaseComponent sibling) {
+    throw new UnsupportedOperationException();
+  }
+
+  default IChatBaseComponent setChatModifier(final ChatModifier modifier) {
+    throw new UnsupportedOperationException();
+  }
+
+  class ChatSerializer implements JsonDeserializer<IChatBaseComponent> {
+    public static IChatBaseComponent a(final String json) {
+      return () -> json;
+    }
+
+    @Override
+    public IChatBaseComponent deserialize(final JsonElement json, final Type type, final JsonDeserializationContext context) {
+      return a(json.toString());
+    }
+  }
+}
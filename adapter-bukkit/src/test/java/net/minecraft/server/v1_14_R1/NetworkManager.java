@@ -0,0 +1,51 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.minecraft.server.v1_14_R1;
+
+import io.netty.channel.Channel;
+
+/**
+ * A stand-in for a player's network manager, with a channel which can be marked as backed up.
+ */
+public class NetworkManager {
+  public final Channel channel = new TestChannel();
+
+  public void backedUp(final boolean backedUp) {
+    ((TestChannel) this.channel).backedUp = backedUp;
+  }
+
+  private static final class TestChannel implements Channel {
+    boolean backedUp;
+
+    @Override
+    public boolean isWritable() {
+      return !this.backedUp;
+    }
+
+    @Override
+    public long bytesBeforeWritable() {
+      return this.backedUp ? 1024 : 0;
+    }
+  }
+}
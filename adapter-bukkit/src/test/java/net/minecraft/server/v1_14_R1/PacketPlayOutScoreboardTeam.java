@@ -0,0 +1,55 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.minecraft.server.v1_14_R1;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A stand-in for the scoreboard team packet.
+ */
+public class PacketPlayOutScoreboardTeam implements Packet {
+  private String name;
+  private IChatBaseComponent displayName;
+  private IChatBaseComponent prefix;
+  private IChatBaseComponent suffix;
+  private final Collection<String> players = new ArrayList<>();
+  private int mode;
+
+  public String name() {
+    return this.name;
+  }
+
+  public IChatBaseComponent prefix() {
+    return this.prefix;
+  }
+
+  public Collection<String> players() {
+    return this.players;
+  }
+
+  public int mode() {
+    return this.mode;
+  }
+}
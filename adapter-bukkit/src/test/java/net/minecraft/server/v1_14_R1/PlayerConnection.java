@@ -0,0 +1,65 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.minecraft.server.v1_14_R1;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A stand-in for a player's connection, which counts the packets sent to it and keeps the last one.
+ * Packets may be sent from any thread, as on the server.
+ *
+ * <p>Every packet is kept once {@link #record() recording} starts.</p>
+ */
+public class PlayerConnection {
+  public final NetworkManager networkManager;
+  private int received;
+  private Packet last;
+  private List<Packet> recorded;
+
+  public PlayerConnection(final NetworkManager networkManager) {
+    this.networkManager = networkManager;
+  }
+
+  public synchronized void sendPacket(final Packet packet) {
+    this.received++;
+    this.last = packet;
+    if(this.recorded != null) {
+      this.recorded.add(packet);
+    }
+  }
+
+  public synchronized List<Packet> record() {
+    this.recorded = new ArrayList<>();
+    return this.recorded;
+  }
+
+  public synchronized int received() {
+    return this.received;
+  }
+
+  public synchronized Packet last() {
+    return this.last;
+  }
+}
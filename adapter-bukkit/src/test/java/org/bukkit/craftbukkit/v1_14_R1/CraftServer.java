@@ -0,0 +1,74 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bukkit.craftbukkit.v1_14_R1;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.bukkit.Server;
+import org.bukkit.craftbukkit.v1_14_R1.entity.CraftPlayer;
+import org.bukkit.scheduler.BukkitScheduler;
+
+/**
+ * A stand-in for the CraftBukkit server, which the adapters resolve the server version from.
+ *
+ * <p>Scheduled tasks run every time the server is {@link #tick() ticked}.</p>
+ */
+public final class CraftServer implements Server {
+  private final Set<CraftPlayer> players = new LinkedHashSet<>();
+  private final Collection<CraftPlayer> view = Collections.unmodifiableSet(this.players);
+  private final List<Runnable> tasks = new CopyOnWriteArrayList<>();
+
+  @Override
+  public Collection<CraftPlayer> getOnlinePlayers() {
+    return this.view;
+  }
+
+  @Override
+  public BukkitScheduler getScheduler() {
+    return (plugin, task, delay, period) -> {
+      this.tasks.add(task);
+      return () -> this.tasks.remove(task);
+    };
+  }
+
+  public void tick() {
+    for(final Runnable task : this.tasks) {
+      task.run();
+    }
+  }
+
+  public void join(final CraftPlayer player) {
+    this.players.add(player);
+    player.setOnline(true);
+  }
+
+  public void quit(final CraftPlayer player) {
+    this.players.remove(player);
+    player.setOnline(false);
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.bukkit.craftbukkit.v1_14_R1.entity;
+
+import java.util.UUID;
+import net.minecraft.server.v1_14_R1.EntityPlayer;
+import net.minecraft.server.v1_14_R1.NetworkManager;
+import net.minecraft.server.v1_14_R1.PlayerConnection;
+import org.bukkit.entity.Player;
+
+/**
+ * A stand-in for the CraftBukkit player, wrapping a server player and its connection.
+ */
+public final class CraftPlayer implements Player {
+  private final String name;
+  private final UUID uniqueId = UUID.randomUUID();
+  private final EntityPlayer handle;
+  private boolean online;
+
+  public CraftPlayer(final String name) {
+    this.name = name;
+    this.handle = new EntityPlayer(new PlayerConnection(new NetworkManager()));
+  }
+
+  public EntityPlayer getHandle() {
+    return this.handle;
+  }
+
+  public PlayerConnection connection() {
+    return this.handle.playerConnection;
+  }
+
+  @Override
+  public void sendMessage(final String message) {
+    throw new UnsupportedOperationException("legacy message sent to " + this.name);
+  }
+
+  @Override
+  public String getName() {
+    return this.name;
+  }
+
+  @Override
+  public UUID getUniqueId() {
+    return this.uniqueId;
+  }
+
+  @Override
+  public boolean isOnline() {
+    return this.online;
+  }
+
+  public void setOnline(final boolean online) {
+    this.online = online;
+  }
+}
@@ -23,27 +23,48 @@
  */
 package net.kyori.text.adapter.bungeecord;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
+import com.google.common.collect.MapMaker;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
+import com.google.gson.TypeAdapter;
 import com.google.gson.TypeAdapterFactory;
 import com.google.gson.internal.Excluder;
 import com.google.gson.internal.bind.TreeTypeAdapter;
+import com.google.gson.internal.bind.TypeAdapters;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import net.kyori.text.Component;
+import net.kyori.text.adapter.Backpressure;
+import net.kyori.text.adapter.ComponentFingerprint;
+import net.kyori.text.adapter.ComponentOptimizer;
+import net.kyori.text.adapter.MessageBudget;
+import net.kyori.text.adapter.MessagePriority;
+import net.kyori.text.adapter.PreparedMessage;
+import net.kyori.text.adapter.SendPipeline;
+import net.kyori.text.adapter.TrafficCapture;
 import net.kyori.text.serializer.gson.GsonComponentSerializer;
 import net.kyori.text.serializer.legacy.LegacyComponentSerializer;
 import net.md_5.bungee.api.CommandSender;
 import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
 import net.md_5.bungee.chat.ComponentSerializer;
+import net.md_5.bungee.protocol.packet.PlayerListHeaderFooter;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 /**
@@ -57,7 +78,7 @@ public interface TextAdapter {
    * @param component the component
    */
   static void sendMessage(final @NonNull CommandSender viewer, final @NonNull Component component) {
-    viewer.sendMessage(toBungeeCord(component));
+    sendMessage(Collections.singleton(viewer), component);
   }
 
   /**
@@ -67,10 +88,65 @@ public interface TextAdapter {
    * @param component the component
    */
   static void sendMessage(final @NonNull Iterable<? extends CommandSender> viewers, final @NonNull Component component) {
-    final BaseComponent[] components = toBungeeCord(component);
+    sendMessage(viewers, component, MessagePriority.NORMAL);
+  }
+
+  /**
+   * Sends {@code component} to the given {@code viewers}.
+   *
+   * @param viewers the viewers to send the component to
+   * @param component the component
+   * @param priority the priority
+   */
+  static void sendMessage(final @NonNull Iterable<? extends CommandSender> viewers, final @NonNull Component component, final @NonNull MessagePriority priority) {
+    final List<BaseComponent[]> messages = TextAdapter0.messages(component);
+    int count = 0;
     for(final CommandSender viewer : viewers) {
-      viewer.sendMessage(components);
+      if(TextAdapter0.accepts(viewer, priority)) {
+        SendPipeline.dispatch(viewer, () -> {
+          for(final BaseComponent[] components : messages) {
+            viewer.sendMessage(components);
+          }
+        });
+        count++;
+      }
+    }
+    TrafficCapture.record(component, TrafficCapture.Channel.CHAT, count);
+  }
+
+  /**
+   * Sends {@code message}, rendered with {@code values}, to the given {@code viewer}.
+   *
+   * @param viewer the viewer to send the message to
+   * @param message the message
+   * @param values the placeholder values
+   */
+  static void sendMessage(final @NonNull CommandSender viewer, final @NonNull PreparedMessage message, final @NonNull Object... values) {
+    sendMessage(Collections.singleton(viewer), message, values);
+  }
+
+  /**
+   * Sends {@code message}, rendered with {@code values}, to the given {@code viewers}.
+   *
+   * @param viewers the viewers to send the message to
+   * @param message the message
+   * @param values the placeholder values
+   */
+  static void sendMessage(final @NonNull Iterable<? extends CommandSender> viewers, final @NonNull PreparedMessage message, final @NonNull Object... values) {
+    final String json = message.render(values);
+    if(TextAdapter0.oversized(json)) {
+      sendMessage(viewers, GsonComponentSerializer.INSTANCE.deserialize(json), MessagePriority.NORMAL);
+      return;
+    }
+    final BaseComponent[] components = TextAdapter0.json(json);
+    int count = 0;
+    for(final CommandSender viewer : viewers) {
+      if(TextAdapter0.accepts(viewer, MessagePriority.NORMAL)) {
+        SendPipeline.dispatch(viewer, () -> viewer.sendMessage(components));
+        count++;
+      }
     }
+    TrafficCapture.record(json, TrafficCapture.Channel.CHAT, count);
   }
 
   /**
@@ -97,6 +173,45 @@ public interface TextAdapter {
     sendMessage(viewers, component);
   }
 
+  /**
+   * Sets the header and footer of the player list of the given {@code viewer}.
+   *
+   * @param viewer the viewer
+   * @param header the header
+   * @param footer the footer
+   */
+  static void sendPlayerListHeaderAndFooter(final @NonNull ProxiedPlayer viewer, final @NonNull Component header, final @NonNull Component footer) {
+    sendPlayerListHeaderAndFooter(Collections.singleton(viewer), header, footer);
+  }
+
+  /**
+   * Sets the header and footer of the player list of the given {@code viewers}.
+   *
+   * <p>The packet is created once and shared between viewers. Viewers whose header and footer
+   * are already equal to {@code header} and {@code footer} are skipped.</p>
+   *
+   * @param viewers the viewers
+   * @param header the header
+   * @param footer the footer
+   */
+  static void sendPlayerListHeaderAndFooter(final @NonNull Iterable<? extends ProxiedPlayer> viewers, final @NonNull Component header, final @NonNull Component footer) {
+    final long headerFingerprint = ComponentFingerprint.of(header);
+    final long footerFingerprint = ComponentFingerprint.of(footer);
+    PlayerListHeaderFooter packet = null;
+    for(final ProxiedPlayer viewer : viewers) {
+      final long[] last = TextAdapter0.PLAYER_LISTS.get(viewer);
+      if(last != null && last[0] == headerFingerprint && last[1] == footerFingerprint) {
+        continue;
+      }
+      if(packet == null) {
+        packet = TextAdapter0.playerListPacket(header, headerFingerprint, footer, footerFingerprint);
+      }
+      final PlayerListHeaderFooter shared = packet;
+      SendPipeline.dispatch(viewer, () -> viewer.unsafe().sendPacket(shared));
+      TextAdapter0.PLAYER_LISTS.put(viewer, new long[]{headerFingerprint, footerFingerprint});
+    }
+  }
+
   /**
    * Converts {@code component} to the {@link BaseComponent} format used by BungeeCord.
    *
@@ -115,7 +230,23 @@ public interface TextAdapter {
 }
 
 final class TextAdapter0 {
+  // keyed by fingerprint, so equal components built separately share an entry
+  static final Cache<Long, String> LEGACY = CacheBuilder.newBuilder()
+    .maximumSize(1024)
+    .build();
+  static final Cache<Long, JsonElement> JSON = CacheBuilder.newBuilder()
+    .maximumSize(1024)
+    .build();
+  // the header and footer fingerprints last sent to each player
+  static final Map<ProxiedPlayer, long[]> PLAYER_LISTS = new MapMaker().weakKeys().makeMap();
+  private static final Cache<Long, PlayerListHeaderFooter> PLAYER_LIST_PACKETS = CacheBuilder.newBuilder()
+    .maximumSize(64)
+    .build();
+  // set when binding, if the proxy's gson can write raw json
+  private static boolean rawJson;
   static final boolean BOUND = bind();
+  // UserConnection#getCh and ChannelWrapper#getHandle, resolved against the first player seen
+  private static volatile Method[] channelMethods;
 
   @SuppressWarnings("unchecked")
   private static boolean bind() {
@@ -145,7 +276,18 @@ final class TextAdapter0 {
 
       modifiedFactories.add(index, TreeTypeAdapter.newFactoryWithMatchRawType(TypeToken.get(AdapterComponent.class), new Serializer()));
 
+      // JsonWriter#jsonValue was added in gson 2.4
+      boolean rawJson;
+      try {
+        JsonWriter.class.getMethod("jsonValue", String.class);
+        modifiedFactories.add(index, TypeAdapters.newFactory(JsonComponent.class, new JsonComponentAdapter()));
+        rawJson = true;
+      } catch(final NoSuchMethodException e) {
+        rawJson = false;
+      }
+
       factoriesField.set(gson, modifiedFactories);
+      TextAdapter0.rawJson = rawJson;
       return true;
     } catch(final Exception e) {
       return false;
@@ -169,13 +311,89 @@ final class TextAdapter0 {
   }
 
   static BaseComponent[] toBungeeCord(final Component component) {
+    return toBungeeCord0(ComponentOptimizer.apply(component));
+  }
+
+  /*
+   * Converts component into the messages which should be sent in its place, keeping each within the budget.
+   */
+  static List<BaseComponent[]> messages(final Component component) {
+    final List<Component> parts = MessageBudget.apply(ComponentOptimizer.apply(component));
+    if(parts.size() == 1) {
+      return Collections.singletonList(toBungeeCord0(parts.get(0)));
+    }
+    final List<BaseComponent[]> messages = new ArrayList<>(parts.size());
+    for(final Component part : parts) {
+      messages.add(toBungeeCord0(part));
+    }
+    return messages;
+  }
+
+  static PlayerListHeaderFooter playerListPacket(final Component header, final long headerFingerprint, final Component footer, final long footerFingerprint) {
+    // animated headers and footers usually cycle through a few frames
+    final long key = headerFingerprint * 31 + footerFingerprint;
+    PlayerListHeaderFooter packet = PLAYER_LIST_PACKETS.getIfPresent(key);
+    if(packet == null) {
+      packet = new PlayerListHeaderFooter(
+        GsonComponentSerializer.INSTANCE.serialize(ComponentOptimizer.apply(header)),
+        GsonComponentSerializer.INSTANCE.serialize(ComponentOptimizer.apply(footer))
+      );
+      PLAYER_LIST_PACKETS.put(key, packet);
+    }
+    return packet;
+  }
+
+  static boolean oversized(final String json) {
+    return MessageBudget.enabled() && MessageBudget.length(json) > MessageBudget.limit();
+  }
+
+  private static BaseComponent[] toBungeeCord0(final Component optimized) {
     if(BOUND) {
-      return new BaseComponent[]{new AdapterComponent(component)};
+      return new BaseComponent[]{new AdapterComponent(optimized)};
     } else {
-      return ComponentSerializer.parse(GsonComponentSerializer.INSTANCE.serialize(component));
+      return ComponentSerializer.parse(GsonComponentSerializer.INSTANCE.serialize(optimized));
+    }
+  }
+
+  static boolean accepts(final CommandSender viewer, final MessagePriority priority) {
+    if(priority == MessagePriority.HIGH || !Backpressure.enabled() || !(viewer instanceof ProxiedPlayer)) {
+      return true;
+    }
+    return Backpressure.accept(channel(viewer), priority);
+  }
+
+  private static Object channel(final CommandSender viewer) {
+    Method[] methods = channelMethods;
+    if(methods == null) {
+      try {
+        final Method getCh = viewer.getClass().getMethod("getCh");
+        methods = new Method[]{getCh, getCh.getReturnType().getMethod("getHandle")};
+      } catch(final NoSuchMethodException e) {
+        methods = new Method[0];
+      }
+      channelMethods = methods;
+    }
+    if(methods.length == 0) {
+      return null;
+    }
+    try {
+      return methods[1].invoke(methods[0].invoke(viewer));
+    } catch(final ReflectiveOperationException e) {
+      return null;
     }
   }
 
+  /*
+   * Sent through the proxy like any other message, so it is handled for the viewer's protocol version.
+   */
+  static BaseComponent[] json(final String json) {
+    if(BOUND && rawJson) {
+      // written into the packet as-is when it is encoded
+      return new BaseComponent[]{new JsonComponent(json)};
+    }
+    return ComponentSerializer.parse(json);
+  }
+
   public static final class AdapterComponent extends BaseComponent {
     private final Component component;
 
@@ -185,7 +403,13 @@ final class TextAdapter0 {
 
     @Override
     public String toLegacyText() {
-      return LegacyComponentSerializer.INSTANCE.serialize(this.component);
+      final long fingerprint = ComponentFingerprint.of(this.component);
+      String legacy = TextAdapter0.LEGACY.getIfPresent(fingerprint);
+      if(legacy == null) {
+        legacy = LegacyComponentSerializer.INSTANCE.serialize(this.component);
+        TextAdapter0.LEGACY.put(fingerprint, legacy);
+      }
+      return legacy;
     }
 
     @Override
@@ -197,7 +421,49 @@ final class TextAdapter0 {
   public static class Serializer implements JsonSerializer<AdapterComponent> {
     @Override
     public JsonElement serialize(final AdapterComponent src, final Type typeOfSrc, final JsonSerializationContext context) {
-      return context.serialize(src.component);
+      // the packet is encoded for each viewer, but the tree is only written out - never modified
+      final long fingerprint = ComponentFingerprint.of(src.component);
+      JsonElement json = TextAdapter0.JSON.getIfPresent(fingerprint);
+      if(json == null) {
+        json = context.serialize(src.component);
+        TextAdapter0.JSON.put(fingerprint, json);
+      }
+      return json;
+    }
+  }
+
+  public static final class JsonComponent extends BaseComponent {
+    private final String json;
+
+    JsonComponent(final String json) {
+      this.json = json;
+    }
+
+    @Override
+    public String toLegacyText() {
+      return LegacyComponentSerializer.INSTANCE.serialize(GsonComponentSerializer.INSTANCE.deserialize(this.json));
+    }
+
+    @Override
+    public BaseComponent duplicate() {
+      return this;
+    }
+  }
+
+  public static class JsonComponentAdapter extends TypeAdapter<JsonComponent> {
+    @Override
+    public void write(final JsonWriter out, final JsonComponent value) throws IOException {
+      if(out.getClass() == JsonWriter.class) {
+        out.jsonValue(value.json);
+      } else {
+        // a tree writer cannot take raw json
+        TypeAdapters.JSON_ELEMENT.write(out, new JsonParser().parse(value.json));
+      }
+    }
+
+    @Override
+    public JsonComponent read(final JsonReader in) {
+      throw new UnsupportedOperationException();
     }
   }
 }
@@ -0,0 +1,311 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter.bungeecord;
+
+import com.google.gson.JsonParser;
+import io.netty.channel.Channel;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import net.kyori.text.adapter.Backpressure;
+import net.kyori.text.adapter.MessagePriority;
+import net.kyori.text.adapter.PreparedMessage;
+import net.kyori.text.format.TextColor;
+import net.kyori.text.serializer.gson.GsonComponentSerializer;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.chat.ComponentSerializer;
+import net.md_5.bungee.protocol.DefinedPacket;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Broadcasts through the adapter to thousands of simulated players, which join and quit between broadcasts.
+ *
+ * <p>Each stand-in player encodes the messages sent to it, as the proxy does for every viewer. Allocation and
+ * latency are checked against the baselines in {@code broadcast-baselines.properties}, which should be updated
+ * when a change is expected to move them. Latency is only checked when the {@code text.benchmarks} system
+ * property is {@code true}.</p>
+ */
+class BroadcastLoadTest {
+  private static final int VIEWERS = 2000;
+  private static final int CHURN = 100;
+  private static final int WARMUP = 300;
+  private static final int BROADCASTS = 500;
+  // latency depends on the machine, so it is only checked when asked for
+  private static final String BENCHMARKS = "text.benchmarks";
+  private static final Set<Viewer> ONLINE = new LinkedHashSet<>();
+  private static final Collection<Viewer> ONLINE_VIEW = Collections.unmodifiableSet(ONLINE);
+  private static final Random RANDOM = new Random(42);
+  private static int joined;
+
+  @BeforeAll
+  static void start() {
+    Backpressure.enabled(true);
+    for(int i = 0; i < VIEWERS; i++) {
+      join();
+    }
+  }
+
+  @AfterAll
+  static void stop() {
+    Backpressure.enabled(false);
+  }
+
+  @Test
+  void testDelivery() {
+    final JsonParser parser = new JsonParser();
+    final PreparedMessage prepared = PreparedMessage.compile(TextComponent.builder("Welcome, ", TextColor.GRAY)
+      .append(PreparedMessage.placeholder("name").color(TextColor.GOLD))
+      .build());
+    for(final Viewer viewer : ONLINE) {
+      viewer.received = 0;
+    }
+    final List<Viewer> offline = new ArrayList<>();
+    for(int round = 0; round < 50; round++) {
+      offline.addAll(churn());
+      final List<Viewer> online = new ArrayList<>(ONLINE);
+      for(final Viewer viewer : online) {
+        viewer.backedUp = RANDOM.nextInt(10) == 0;
+      }
+
+      final Component message = message(round);
+      TextAdapter.sendMessage(ONLINE_VIEW, message);
+      assertReceived(online, offline, 1, parser.parse(GsonComponentSerializer.INSTANCE.serialize(message)).toString());
+
+      TextAdapter.sendMessage(ONLINE_VIEW, prepared, "player" + round);
+      assertReceived(online, offline, 2, parser.parse(prepared.render("player" + round)).toString());
+
+      // low priority messages are dropped for players with a backed up connection
+      TextAdapter.sendMessage(ONLINE_VIEW, message(-round), MessagePriority.LOW);
+      for(final Viewer viewer : online) {
+        assertEquals(viewer.backedUp ? 2 : 3, viewer.received, viewer.name);
+        viewer.backedUp = false;
+        viewer.received = 0;
+      }
+      for(final Viewer viewer : offline) {
+        assertEquals(0, viewer.received, viewer.name);
+      }
+    }
+  }
+
+  @Test
+  void testSingleViewerBackpressure() {
+    final Viewer viewer = ONLINE.iterator().next();
+    final long maxPendingBytes = Backpressure.maxPendingBytes();
+    Backpressure.maxPendingBytes(0);
+    try {
+      viewer.received = 0;
+      viewer.backedUp = true;
+      TextAdapter.sendMessage(viewer, message(0));
+      assertEquals(0, viewer.received);
+      viewer.backedUp = false;
+      TextAdapter.sendMessage(viewer, message(0));
+      assertEquals(1, viewer.received);
+    } finally {
+      Backpressure.maxPendingBytes(maxPendingBytes);
+      viewer.received = 0;
+    }
+  }
+
+  private static void assertReceived(final List<Viewer> online, final List<Viewer> offline, final int received, final String json) {
+    final JsonParser parser = new JsonParser();
+    for(final Viewer viewer : online) {
+      assertEquals(received, viewer.received, viewer.name);
+      assertEquals(json, parser.parse(viewer.last).toString(), viewer.name);
+    }
+    for(final Viewer viewer : offline) {
+      assertEquals(0, viewer.received, viewer.name);
+    }
+  }
+
+  @Test
+  void testAllocation() throws IOException {
+    final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    assumeTrue(threads instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported(), "allocation is not measurable on this runtime");
+    final com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+    final long thread = Thread.currentThread().getId();
+
+    warmUp();
+    final long[] allocated = new long[BROADCASTS];
+    for(int i = 0; i < BROADCASTS; i++) {
+      if(i % 10 == 0) {
+        churn();
+      }
+      final Component message = message(i);
+      final long bytesBefore = allocation.getThreadAllocatedBytes(thread);
+      TextAdapter.sendMessage(ONLINE_VIEW, message);
+      allocated[i] = allocation.getThreadAllocatedBytes(thread) - bytesBefore;
+    }
+    Arrays.sort(allocated);
+
+    // the median, as maps keyed by player occasionally resize as players join
+    assertWithin("allocated-bytes-per-broadcast", allocated[BROADCASTS / 2]);
+  }
+
+  @Test
+  void testLatency() throws IOException {
+    assumeTrue(Boolean.getBoolean(BENCHMARKS), "latency is only checked when " + BENCHMARKS + " is set");
+    warmUp();
+    final long[] nanos = new long[BROADCASTS];
+    for(int i = 0; i < BROADCASTS; i++) {
+      if(i % 10 == 0) {
+        churn();
+      }
+      final Component message = message(i);
+      final long start = System.nanoTime();
+      TextAdapter.sendMessage(ONLINE_VIEW, message);
+      nanos[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(nanos);
+
+    assertWithin("p50-micros", nanos[BROADCASTS / 2] / 1000);
+    assertWithin("p99-micros", nanos[BROADCASTS * 99 / 100] / 1000);
+  }
+
+  private static void warmUp() {
+    for(int i = 0; i < WARMUP; i++) {
+      TextAdapter.sendMessage(ONLINE_VIEW, message(i));
+    }
+  }
+
+  private static void assertWithin(final String key, final long measured) throws IOException {
+    final Properties baselines = new Properties();
+    try(final InputStream is = BroadcastLoadTest.class.getResourceAsStream("broadcast-baselines.properties")) {
+      baselines.load(is);
+    }
+    final long baseline = Long.parseLong(baselines.getProperty(key));
+    final double tolerance = Double.parseDouble(baselines.getProperty(key + ".tolerance"));
+    assertTrue(measured <= baseline * tolerance, key + " regressed to " + measured + ", baseline is " + baseline + " with a tolerance of " + tolerance);
+  }
+
+  private static Component message(final int round) {
+    return TextComponent.builder("Broadcast ", TextColor.GRAY)
+      .append(TextComponent.of("#" + round, TextColor.GOLD))
+      .append(TextComponent.of(" to " + VIEWERS + " players"))
+      .build();
+  }
+
+  /*
+   * Replaces random online players with new ones, returning the players who quit.
+   */
+  private static List<Viewer> churn() {
+    final List<Viewer> online = new ArrayList<>(ONLINE);
+    final List<Viewer> quit = new ArrayList<>(CHURN);
+    for(int i = 0; i < CHURN; i++) {
+      final Viewer viewer = online.remove(RANDOM.nextInt(online.size()));
+      ONLINE.remove(viewer);
+      viewer.received = 0;
+      quit.add(viewer);
+    }
+    for(int i = 0; i < CHURN; i++) {
+      join();
+    }
+    return quit;
+  }
+
+  private static void join() {
+    ONLINE.add(new Viewer("player" + joined++));
+  }
+
+  /**
+   * A stand-in for the proxy's player, which encodes each message sent to it.
+   */
+  public static final class Viewer implements ProxiedPlayer {
+    private final String name;
+    private final ChannelWrapper channel = new ChannelWrapper(this);
+    boolean backedUp;
+    int received;
+    String last;
+
+    Viewer(final String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String getName() {
+      return this.name;
+    }
+
+    @Override
+    public void sendMessage(final BaseComponent... message) {
+      this.last = ComponentSerializer.toString(message);
+      this.received++;
+    }
+
+    @Override
+    public Unsafe unsafe() {
+      return (DefinedPacket packet) -> {
+        throw new UnsupportedOperationException();
+      };
+    }
+
+    // found by name, as on the proxy's UserConnection
+    public ChannelWrapper getCh() {
+      return this.channel;
+    }
+  }
+
+  /**
+   * A stand-in for the proxy's channel wrapper.
+   */
+  public static final class ChannelWrapper implements Channel {
+    private final Viewer viewer;
+
+    ChannelWrapper(final Viewer viewer) {
+      this.viewer = viewer;
+    }
+
+    public Channel getHandle() {
+      return this;
+    }
+
+    @Override
+    public boolean isWritable() {
+      return !this.viewer.backedUp;
+    }
+
+    @Override
+    public long bytesBeforeWritable() {
+      return this.viewer.backedUp ? 1024 : 0;
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.LongAdder;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Controls the dropping of messages to viewers whose connection is not keeping up.
+ *
+ * <p>When a viewer's channel is no longer writable, {@link MessagePriority#LOW low} priority messages
+ * are dropped. {@link MessagePriority#NORMAL Normal} priority messages continue to be queued until the
+ * channel is backed up past {@link #maxPendingBytes()}. {@link MessagePriority#HIGH High} priority
+ * messages are always queued.</p>
+ */
+public interface Backpressure {
+  /**
+   * Checks if messages may be dropped for viewers whose connection is not keeping up.
+   *
+   * @return {@code true} if backpressure is enabled
+   */
+  static boolean enabled() {
+    return Backpressure0.enabled;
+  }
+
+  /**
+   * Sets if messages may be dropped for viewers whose connection is not keeping up.
+   *
+   * @param enabled {@code true} to enable backpressure
+   */
+  static void enabled(final boolean enabled) {
+    Backpressure0.enabled = enabled;
+  }
+
+  /**
+   * Gets the number of bytes a viewer's channel may be backed up by before normal priority messages are dropped.
+   *
+   * @return the number of bytes
+   */
+  static long maxPendingBytes() {
+    return Backpressure0.maxPendingBytes;
+  }
+
+  /**
+   * Sets the number of bytes a viewer's channel may be backed up by before normal priority messages are dropped.
+   *
+   * @param maxPendingBytes the number of bytes
+   */
+  static void maxPendingBytes(final long maxPendingBytes) {
+    if(maxPendingBytes < 0) {
+      throw new IllegalArgumentException("maxPendingBytes must not be negative");
+    }
+    Backpressure0.maxPendingBytes = maxPendingBytes;
+  }
+
+  /**
+   * Gets the number of messages of {@code priority} which have been dropped.
+   *
+   * @param priority the priority
+   * @return the number of dropped messages
+   */
+  static long dropped(final @NonNull MessagePriority priority) {
+    return Backpressure0.DROPPED[priority.ordinal()].sum();
+  }
+
+  /**
+   * Checks if a message of {@code priority} should be sent to the viewer connected through {@code channel}.
+   *
+   * <p>A message which should not be sent is counted as dropped.</p>
+   *
+   * @param channel the viewer's netty channel, or {@code null} if unknown
+   * @param priority the priority
+   * @return {@code true} if the message should be sent
+   */
+  static boolean accept(final @Nullable Object channel, final @NonNull MessagePriority priority) {
+    if(!Backpressure0.enabled || channel == null || priority == MessagePriority.HIGH || Backpressure0.accept(channel, priority)) {
+      return true;
+    }
+    Backpressure0.DROPPED[priority.ordinal()].increment();
+    return false;
+  }
+}
+
+final class Backpressure0 {
+  static final LongAdder[] DROPPED = new LongAdder[MessagePriority.values().length];
+  static volatile boolean enabled;
+  static volatile long maxPendingBytes = 1 << 21;
+  // resolved against the first channel seen, since netty is only available from the platform's class loader
+  private static volatile ChannelMethods methods;
+
+  static {
+    for(int i = 0; i < DROPPED.length; i++) {
+      DROPPED[i] = new LongAdder();
+    }
+  }
+
+  static boolean accept(final Object channel, final MessagePriority priority) {
+    ChannelMethods methods = Backpressure0.methods;
+    if(methods == null) {
+      methods = Backpressure0.methods = ChannelMethods.resolve(channel.getClass());
+    }
+    if(methods.isWritable == null) {
+      return true;
+    }
+    try {
+      if((boolean) methods.isWritable.invoke(channel)) {
+        return true;
+      } else if(priority == MessagePriority.LOW) {
+        return false;
+      }
+      return methods.bytesBeforeWritable == null || (long) methods.bytesBeforeWritable.invoke(channel) <= maxPendingBytes;
+    } catch(final ReflectiveOperationException e) {
+      return true;
+    }
+  }
+
+  private static final class ChannelMethods {
+    final Method isWritable;
+    final Method bytesBeforeWritable;
+
+    private ChannelMethods(final Method isWritable, final Method bytesBeforeWritable) {
+      this.isWritable = isWritable;
+      this.bytesBeforeWritable = bytesBeforeWritable;
+    }
+
+    static ChannelMethods resolve(final Class<?> channelClass) {
+      try {
+        final Class<?> channel = Class.forName("io.netty.channel.Channel", false, channelClass.getClassLoader());
+        Method bytesBeforeWritable;
+        try {
+          // netty 4.1+
+          bytesBeforeWritable = channel.getMethod("bytesBeforeWritable");
+        } catch(final NoSuchMethodException e) {
+          bytesBeforeWritable = null;
+        }
+        return new ChannelMethods(channel.getMethod("isWritable"), bytesBeforeWritable);
+      } catch(final ReflectiveOperationException e) {
+        return new ChannelMethods(null, null);
+      }
+    }
+  }
+}
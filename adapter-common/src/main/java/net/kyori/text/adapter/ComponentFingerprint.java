@@ -0,0 +1,191 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.List;
+import net.kyori.text.BlockNbtComponent;
+import net.kyori.text.Component;
+import net.kyori.text.EntityNbtComponent;
+import net.kyori.text.KeybindComponent;
+import net.kyori.text.NbtComponent;
+import net.kyori.text.ScoreComponent;
+import net.kyori.text.SelectorComponent;
+import net.kyori.text.TextComponent;
+import net.kyori.text.TranslatableComponent;
+import net.kyori.text.event.ClickEvent;
+import net.kyori.text.event.HoverEvent;
+import net.kyori.text.format.Style;
+import net.kyori.text.format.TextColor;
+import net.kyori.text.format.TextDecoration;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Computes 64-bit structural fingerprints of text {@link Component}s.
+ *
+ * <p>Equal components have equal fingerprints, even if they were built separately, so a fingerprint
+ * can be used in place of the component as a cache key. Unequal components are very unlikely to
+ * share a fingerprint.</p>
+ */
+public interface ComponentFingerprint {
+  /**
+   * Gets the fingerprint of {@code component}.
+   *
+   * <p>Fingerprints are cached per component instance.</p>
+   *
+   * @param component the component
+   * @return the fingerprint
+   */
+  static long of(final @NonNull Component component) {
+    final Long cached = ComponentFingerprint0.CACHE.getIfPresent(component);
+    if(cached != null) {
+      return cached;
+    }
+    final long fingerprint = ComponentFingerprint0.fingerprint(component);
+    ComponentFingerprint0.CACHE.put(component, fingerprint);
+    return fingerprint;
+  }
+}
+
+final class ComponentFingerprint0 {
+  // keys are weak and compared by identity
+  static final Cache<Component, Long> CACHE = CacheBuilder.newBuilder()
+    .weakKeys()
+    .maximumSize(16384)
+    .build();
+  private static final long SEED = 0x9e3779b97f4a7c15L;
+  private static final long MULTIPLIER = 0xc6a4a7935bd1e995L;
+  private static final TextDecoration[] DECORATIONS = TextDecoration.values();
+
+  static long fingerprint(final Component component) {
+    return finish(component(SEED, component));
+  }
+
+  private static long component(long hash, final Component component) {
+    if(component instanceof TextComponent) {
+      hash = mix(hash, 1);
+      hash = string(hash, ((TextComponent) component).content());
+    } else if(component instanceof TranslatableComponent) {
+      hash = mix(hash, 2);
+      hash = string(hash, ((TranslatableComponent) component).key());
+      hash = components(hash, ((TranslatableComponent) component).args());
+    } else if(component instanceof KeybindComponent) {
+      hash = mix(hash, 3);
+      hash = string(hash, ((KeybindComponent) component).keybind());
+    } else if(component instanceof ScoreComponent) {
+      hash = mix(hash, 4);
+      hash = string(hash, ((ScoreComponent) component).name());
+      hash = string(hash, ((ScoreComponent) component).objective());
+      hash = string(hash, ((ScoreComponent) component).value());
+    } else if(component instanceof SelectorComponent) {
+      hash = mix(hash, 5);
+      hash = string(hash, ((SelectorComponent) component).pattern());
+    } else if(component instanceof NbtComponent<?, ?>) {
+      hash = mix(hash, 6);
+      hash = string(hash, ((NbtComponent<?, ?>) component).nbtPath());
+      hash = mix(hash, ((NbtComponent<?, ?>) component).interpret() ? 1 : 0);
+      if(component instanceof BlockNbtComponent) {
+        hash = mix(hash, ((BlockNbtComponent) component).pos().hashCode());
+      } else if(component instanceof EntityNbtComponent) {
+        hash = string(hash, ((EntityNbtComponent) component).selector());
+      }
+    } else {
+      // an unknown type - fall back to its own hash code
+      hash = string(hash, component.getClass().getName());
+      hash = mix(hash, component.hashCode());
+    }
+    hash = style(hash, component.style());
+    return components(hash, component.children());
+  }
+
+  private static long components(long hash, final List<Component> components) {
+    final int size = components.size();
+    hash = mix(hash, size);
+    for(int i = 0; i < size; i++) {
+      hash = component(hash, components.get(i));
+    }
+    return hash;
+  }
+
+  private static long style(long hash, final Style style) {
+    if(style.isEmpty()) {
+      return mix(hash, 0);
+    }
+    final TextColor color = style.color();
+    hash = mix(hash, color == null ? -1 : color.ordinal());
+    long decorations = 0;
+    for(final TextDecoration decoration : DECORATIONS) {
+      decorations = (decorations << 2) | style.decoration(decoration).ordinal();
+    }
+    hash = mix(hash, decorations);
+    final ClickEvent clickEvent = style.clickEvent();
+    if(clickEvent != null) {
+      hash = mix(hash, clickEvent.action().ordinal());
+      hash = string(hash, clickEvent.value());
+    } else {
+      hash = mix(hash, -1);
+    }
+    final HoverEvent hoverEvent = style.hoverEvent();
+    if(hoverEvent != null) {
+      hash = mix(hash, hoverEvent.action().ordinal());
+      hash = component(hash, hoverEvent.value());
+    } else {
+      hash = mix(hash, -1);
+    }
+    return string(hash, style.insertion());
+  }
+
+  private static long string(long hash, final @Nullable String string) {
+    if(string == null) {
+      return mix(hash, -1);
+    }
+    final int length = string.length();
+    hash = mix(hash, length);
+    // two characters at a time
+    int i = 0;
+    for(; i + 1 < length; i += 2) {
+      hash = mix(hash, ((long) string.charAt(i) << 16) | string.charAt(i + 1));
+    }
+    if(i < length) {
+      hash = mix(hash, string.charAt(i));
+    }
+    return hash;
+  }
+
+  private static long mix(final long hash, final long value) {
+    return (hash ^ value) * MULTIPLIER + SEED;
+  }
+
+  private static long finish(long hash) {
+    // murmur3 finalizer
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
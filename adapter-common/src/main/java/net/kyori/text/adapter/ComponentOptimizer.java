@@ -0,0 +1,329 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import net.kyori.text.format.Style;
+import net.kyori.text.format.TextDecoration;
+import net.kyori.text.serializer.gson.GsonComponentSerializer;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * An optimizer which reduces the serialized size of text {@link Component}s.
+ *
+ * <p>Optimization flattens redundant nesting, merges adjacent siblings with identical styling,
+ * and removes style properties which are already inherited from the parent. An optimized
+ * component renders identically to the original.</p>
+ */
+public interface ComponentOptimizer {
+  /**
+   * Checks if components should be optimized by the adapters before they are sent.
+   *
+   * @return {@code true} if optimization is enabled
+   */
+  static boolean enabled() {
+    return ComponentOptimizer0.enabled;
+  }
+
+  /**
+   * Sets if components should be optimized by the adapters before they are sent.
+   *
+   * @param enabled {@code true} to enable optimization
+   */
+  static void enabled(final boolean enabled) {
+    ComponentOptimizer0.enabled = enabled;
+  }
+
+  /**
+   * Optimizes {@code component}.
+   *
+   * <p>Results are cached per component instance.</p>
+   *
+   * @param component the component
+   * @return the optimized component
+   */
+  static @NonNull Component optimize(final @NonNull Component component) {
+    return ComponentOptimizer0.cached(component);
+  }
+
+  /**
+   * Optimizes {@code component} if optimization is {@link #enabled() enabled}.
+   *
+   * @param component the component
+   * @return the optimized component, or {@code component} if optimization is disabled
+   */
+  static @NonNull Component apply(final @NonNull Component component) {
+    return ComponentOptimizer0.enabled ? ComponentOptimizer0.cached(component) : component;
+  }
+
+  /**
+   * Optimizes {@code component}, and measures the serialized size before and after optimization.
+   *
+   * @param component the component
+   * @return the result
+   */
+  static @NonNull Result measure(final @NonNull Component component) {
+    final Component optimized = ComponentOptimizer0.cached(component);
+    return new Result(optimized, ComponentOptimizer0.size(component), ComponentOptimizer0.size(optimized));
+  }
+
+  /**
+   * The result of measuring an optimization.
+   */
+  final class Result {
+    private final Component optimized;
+    private final int originalSize;
+    private final int optimizedSize;
+
+    Result(final Component optimized, final int originalSize, final int optimizedSize) {
+      this.optimized = optimized;
+      this.originalSize = originalSize;
+      this.optimizedSize = optimizedSize;
+    }
+
+    /**
+     * Gets the optimized component.
+     *
+     * @return the optimized component
+     */
+    public @NonNull Component optimized() {
+      return this.optimized;
+    }
+
+    /**
+     * Gets the serialized size of the original component, in bytes.
+     *
+     * @return the original size
+     */
+    public int originalSize() {
+      return this.originalSize;
+    }
+
+    /**
+     * Gets the serialized size of the optimized component, in bytes.
+     *
+     * @return the optimized size
+     */
+    public int optimizedSize() {
+      return this.optimizedSize;
+    }
+
+    /**
+     * Gets the number of bytes saved by optimization.
+     *
+     * @return the number of bytes saved
+     */
+    public int saved() {
+      return this.originalSize - this.optimizedSize;
+    }
+  }
+}
+
+final class ComponentOptimizer0 {
+  // keys are weak and compared by identity - an unchanged component is stored as UNCHANGED so the value never references its key
+  private static final Cache<Component, Component> CACHE = CacheBuilder.newBuilder()
+    .weakKeys()
+    .maximumSize(4096)
+    .build();
+  private static final Component UNCHANGED = TextComponent.empty();
+  static volatile boolean enabled;
+
+  static Component cached(final Component component) {
+    final Component cached = CACHE.getIfPresent(component);
+    if(cached != null) {
+      return cached == UNCHANGED ? component : cached;
+    }
+    final Component optimized = optimize(component);
+    CACHE.put(component, optimized == component ? UNCHANGED : optimized);
+    return optimized;
+  }
+
+  static int size(final Component component) {
+    return GsonComponentSerializer.INSTANCE.serialize(component).getBytes(StandardCharsets.UTF_8).length;
+  }
+
+  static Component optimize(final Component component) {
+    final Component optimized = optimize(component, Style.empty());
+    // an unstyled, empty root with a single child can be replaced by that child
+    if(isTransparent(optimized) && optimized.children().size() == 1) {
+      return optimized.children().get(0);
+    }
+    return optimized;
+  }
+
+  private static Component optimize(final Component component, final Style inherited) {
+    final Style style = prune(component.style(), inherited);
+    List<Component> children = optimizeChildren(component.children(), merge(inherited, style));
+    Component result = component;
+    if(component instanceof TextComponent && !children.isEmpty() && isPlainText(children.get(0))) {
+      // leading unstyled text children render exactly as if they were part of the content
+      final StringBuilder content = new StringBuilder(((TextComponent) component).content());
+      int index = 0;
+      while(index < children.size() && isPlainText(children.get(index))) {
+        content.append(((TextComponent) children.get(index)).content());
+        index++;
+      }
+      result = ((TextComponent) result).content(content.toString());
+      children = new ArrayList<>(children.subList(index, children.size()));
+    }
+    if(style != component.style()) {
+      result = result.style(style);
+    }
+    if(children != component.children()) {
+      result = result.children(children);
+    }
+    return result;
+  }
+
+  /*
+   * Returns the original list if no child was changed.
+   */
+  private static List<Component> optimizeChildren(final List<Component> children, final Style inherited) {
+    if(children.isEmpty()) {
+      return children;
+    }
+    final List<Component> optimized = new ArrayList<>(children.size());
+    for(final Component child : children) {
+      final Component result = optimize(child, inherited);
+      if(isTransparent(result)) {
+        // the children of an unstyled, empty component inherit the same style as the component itself
+        for(final Component grandchild : result.children()) {
+          append(optimized, grandchild);
+        }
+      } else {
+        append(optimized, result);
+      }
+    }
+    if(optimized.size() == children.size()) {
+      boolean changed = false;
+      for(int i = 0, size = children.size(); i < size; i++) {
+        if(optimized.get(i) != children.get(i)) {
+          changed = true;
+          break;
+        }
+      }
+      if(!changed) {
+        return children;
+      }
+    }
+    return optimized;
+  }
+
+  private static void append(final List<Component> components, final Component component) {
+    if(component instanceof TextComponent && component.children().isEmpty() && ((TextComponent) component).content().isEmpty()) {
+      return; // renders nothing
+    }
+    final int last = components.size() - 1;
+    if(last >= 0) {
+      final Component previous = components.get(last);
+      if(previous instanceof TextComponent && component instanceof TextComponent
+        && previous.children().isEmpty()
+        && previous.style().equals(component.style())) {
+        final TextComponent text = (TextComponent) component;
+        components.set(last, text.content(((TextComponent) previous).content() + text.content()));
+        return;
+      }
+    }
+    components.add(component);
+  }
+
+  private static boolean isPlainText(final Component component) {
+    return component instanceof TextComponent
+      && component.children().isEmpty()
+      && component.style().isEmpty();
+  }
+
+  private static boolean isTransparent(final Component component) {
+    return component instanceof TextComponent
+      && ((TextComponent) component).content().isEmpty()
+      && component.style().isEmpty();
+  }
+
+  /*
+   * Removes properties from style which are already inherited. Returns the original style if nothing was removed.
+   */
+  private static Style prune(final Style style, final Style inherited) {
+    if(style.isEmpty() || inherited.isEmpty()) {
+      return style;
+    }
+    Style.Builder builder = null;
+    if(style.color() != null && style.color() == inherited.color()) {
+      builder = style.toBuilder().color(null);
+    }
+    for(final TextDecoration decoration : TextDecoration.values()) {
+      final TextDecoration.State state = style.decoration(decoration);
+      if(state != TextDecoration.State.NOT_SET && state == inherited.decoration(decoration)) {
+        builder = (builder == null ? style.toBuilder() : builder).decoration(decoration, TextDecoration.State.NOT_SET);
+      }
+    }
+    if(style.clickEvent() != null && style.clickEvent().equals(inherited.clickEvent())) {
+      builder = (builder == null ? style.toBuilder() : builder).clickEvent(null);
+    }
+    if(style.hoverEvent() != null && style.hoverEvent().equals(inherited.hoverEvent())) {
+      builder = (builder == null ? style.toBuilder() : builder).hoverEvent(null);
+    }
+    if(style.insertion() != null && Objects.equals(style.insertion(), inherited.insertion())) {
+      builder = (builder == null ? style.toBuilder() : builder).insertion(null);
+    }
+    return builder == null ? style : builder.build();
+  }
+
+  /*
+   * Computes the style a child of a component styled with style would inherit.
+   */
+  private static Style merge(final Style inherited, final Style style) {
+    if(inherited.isEmpty()) {
+      return style;
+    } else if(style.isEmpty()) {
+      return inherited;
+    }
+    final Style.Builder builder = inherited.toBuilder();
+    if(style.color() != null) {
+      builder.color(style.color());
+    }
+    for(final TextDecoration decoration : TextDecoration.values()) {
+      final TextDecoration.State state = style.decoration(decoration);
+      if(state != TextDecoration.State.NOT_SET) {
+        builder.decoration(decoration, state);
+      }
+    }
+    if(style.clickEvent() != null) {
+      builder.clickEvent(style.clickEvent());
+    }
+    if(style.hoverEvent() != null) {
+      builder.hoverEvent(style.hoverEvent());
+    }
+    if(style.insertion() != null) {
+      builder.insertion(style.insertion());
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,437 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import net.kyori.text.serializer.gson.GsonComponentSerializer;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Keeps messages within the length the client accepts for a chat packet.
+ *
+ * <p>The serialized length of a message is measured while it is written, and measurement stops
+ * as soon as the {@link #limit() limit} is exceeded. Lengths are in UTF-8 bytes, as the limit
+ * applies to the encoded string. Oversized messages are split or truncated
+ * according to the {@link #policy() policy}, and reported to the {@link #callback(Callback) callback}.</p>
+ */
+public interface MessageBudget {
+  /**
+   * The maximum length of a chat message, in UTF-8 bytes, accepted by every client.
+   *
+   * <p>Clients from 1.8 to 1.12 accept 32767 bytes. Clients from 1.13 accept 262144, so
+   * the {@link #limit(int) limit} may be raised on servers which only accept those clients.</p>
+   */
+  int DEFAULT_LIMIT = 32767;
+
+  /**
+   * Checks if oversized messages are split or truncated before they are sent.
+   *
+   * @return {@code true} if the budget is enabled
+   */
+  static boolean enabled() {
+    return MessageBudget0.enabled;
+  }
+
+  /**
+   * Sets if oversized messages are split or truncated before they are sent.
+   *
+   * @param enabled {@code true} to enable the budget
+   */
+  static void enabled(final boolean enabled) {
+    MessageBudget0.enabled = enabled;
+  }
+
+  /**
+   * Gets the maximum serialized length of a message, in UTF-8 bytes.
+   *
+   * @return the limit
+   */
+  static int limit() {
+    return MessageBudget0.limit;
+  }
+
+  /**
+   * Sets the maximum serialized length of a message, in UTF-8 bytes.
+   *
+   * @param limit the limit
+   */
+  static void limit(final int limit) {
+    if(limit < MessageBudget0.MIN_LIMIT) {
+      throw new IllegalArgumentException("limit must be at least " + MessageBudget0.MIN_LIMIT);
+    }
+    MessageBudget0.limit = limit;
+    MessageBudget0.CACHE.invalidateAll();
+  }
+
+  /**
+   * Gets the policy applied to oversized messages.
+   *
+   * @return the policy
+   */
+  static @NonNull Policy policy() {
+    return MessageBudget0.policy;
+  }
+
+  /**
+   * Sets the policy applied to oversized messages.
+   *
+   * @param policy the policy
+   */
+  static void policy(final @NonNull Policy policy) {
+    MessageBudget0.policy = policy;
+    MessageBudget0.CACHE.invalidateAll();
+  }
+
+  /**
+   * Sets the callback which oversized messages are reported to.
+   *
+   * @param callback the callback, or {@code null} to stop reporting
+   */
+  static void callback(final @Nullable Callback callback) {
+    MessageBudget0.callback = callback;
+  }
+
+  /**
+   * Gets the length of {@code string} once encoded as UTF-8.
+   *
+   * @param string the string
+   * @return the length, in bytes
+   */
+  static int length(final @NonNull CharSequence string) {
+    return MessageBudget0.length(string, 0, string.length());
+  }
+
+  /**
+   * Measures the serialized length of {@code component} in UTF-8 bytes, stopping once it exceeds {@code limit}.
+   *
+   * @param component the component
+   * @param limit the limit
+   * @return the length, or a value greater than {@code limit} if the component exceeds it
+   */
+  static int measure(final @NonNull Component component, final int limit) {
+    return MessageBudget0.measure(component, limit);
+  }
+
+  /**
+   * Gets the messages which should be sent in place of {@code component}.
+   *
+   * <p>Results are cached per component instance. The {@link #callback(Callback) callback} is
+   * called every time an oversized message is applied, whether or not its result was cached.</p>
+   *
+   * @param component the component
+   * @return the messages, which is only {@code component} if the budget is disabled or it is within the limit
+   */
+  static @NonNull List<Component> apply(final @NonNull Component component) {
+    return MessageBudget0.enabled ? MessageBudget0.cached(component) : Collections.singletonList(component);
+  }
+
+  /**
+   * The policy applied to oversized messages.
+   */
+  enum Policy {
+    /**
+     * Split the message between its children, or within its content, into several messages.
+     */
+    SPLIT,
+    /**
+     * Send as much of the message as fits within the limit.
+     */
+    TRUNCATE,
+    /**
+     * Do not send the message.
+     */
+    DROP;
+  }
+
+  /**
+   * A callback which oversized messages are reported to.
+   */
+  @FunctionalInterface
+  interface Callback {
+    /**
+     * Called when an oversized message is split, truncated or dropped.
+     *
+     * @param component the oversized message
+     * @param policy the policy which was applied
+     * @param sent the messages sent in place of the oversized message
+     */
+    void oversized(final @NonNull Component component, final @NonNull Policy policy, final @NonNull List<Component> sent);
+  }
+}
+
+final class MessageBudget0 {
+  static final int MIN_LIMIT = 256;
+  private static final Gson GSON = GsonComponentSerializer.populate(new GsonBuilder()).create();
+  // "extra":[] and the comma before it
+  private static final int EXTRA_OVERHEAD = 11;
+  // keys are weak - a component within the limit is stored as FITS so the value never references its key
+  static final Cache<Component, List<Component>> CACHE = CacheBuilder.newBuilder()
+    .weakKeys()
+    .maximumSize(4096)
+    .build();
+  private static final List<Component> FITS = Collections.emptyList();
+  static volatile boolean enabled = true;
+  static volatile int limit = MessageBudget.DEFAULT_LIMIT;
+  static volatile MessageBudget.Policy policy = MessageBudget.Policy.SPLIT;
+  static volatile MessageBudget.@Nullable Callback callback;
+
+  static List<Component> cached(final Component component) {
+    final List<Component> cached = CACHE.getIfPresent(component);
+    if(cached != null) {
+      if(cached == FITS) {
+        return Collections.singletonList(component);
+      }
+      report(component, MessageBudget0.policy, cached);
+      return cached;
+    }
+    final int limit = MessageBudget0.limit;
+    if(measure(component, limit) <= limit) {
+      CACHE.put(component, FITS);
+      return Collections.singletonList(component);
+    }
+    final MessageBudget.Policy policy = MessageBudget0.policy;
+    final List<Component> parts;
+    if(policy == MessageBudget.Policy.SPLIT) {
+      parts = Collections.unmodifiableList(split(component, limit));
+    } else if(policy == MessageBudget.Policy.TRUNCATE) {
+      final Component truncated = truncate(component, limit);
+      parts = truncated == null ? Collections.emptyList() : Collections.singletonList(truncated);
+    } else {
+      parts = Collections.emptyList();
+    }
+    CACHE.put(component, parts);
+    report(component, policy, parts);
+    return parts;
+  }
+
+  private static void report(final Component component, final MessageBudget.Policy policy, final List<Component> parts) {
+    final MessageBudget.Callback callback = MessageBudget0.callback;
+    if(callback != null) {
+      callback.oversized(component, policy, parts);
+    }
+  }
+
+  static int measure(final Component component, final int limit) {
+    final Counter counter = new Counter(limit);
+    try {
+      GSON.toJson(component, Component.class, counter);
+    } catch(final LimitExceeded e) {
+      // stopped early
+    }
+    return counter.length;
+  }
+
+  private static List<Component> split(final Component component, final int limit) {
+    final List<Component> parts = new ArrayList<>();
+    if(component instanceof TextComponent && component.children().isEmpty()) {
+      // split the content into as many parts as it takes
+      String remaining = ((TextComponent) component).content();
+      while(!remaining.isEmpty()) {
+        final TextComponent part = (TextComponent) truncate(((TextComponent) component).content(remaining), limit);
+        if(part == null || part.content().isEmpty()) {
+          break;
+        }
+        parts.add(part);
+        remaining = remaining.substring(part.content().length());
+      }
+      return parts;
+    } else if(!(component instanceof TextComponent)) {
+      final Component truncated = truncate(component, limit);
+      if(truncated != null) {
+        parts.add(truncated);
+      }
+      return parts;
+    }
+    // the first part keeps the content, later parts only keep the style the children inherit
+    final Component head = component.children(Collections.emptyList());
+    final Component shell = ((TextComponent) head).content("");
+    final int shellLength = measure(shell, limit);
+    Component current = head;
+    int length = measure(head, limit);
+    if(length > limit) {
+      // the content is too large on its own - the children follow the last part of it
+      final List<Component> content = split(head, limit);
+      if(content.isEmpty()) {
+        current = shell;
+        length = shellLength;
+      } else {
+        parts.addAll(content.subList(0, content.size() - 1));
+        current = content.get(content.size() - 1);
+        length = measure(current, limit);
+      }
+    }
+    final List<Component> children = new ArrayList<>();
+    for(final Component child : component.children()) {
+      final int childLength = measure(child, limit);
+      // each child after the first is preceded by a comma
+      if(length + EXTRA_OVERHEAD + childLength + children.size() <= limit) {
+        children.add(child);
+        length += childLength;
+        continue;
+      }
+      if(!children.isEmpty() || !((TextComponent) current).content().isEmpty()) {
+        parts.add(current.children(new ArrayList<>(children)));
+      }
+      children.clear();
+      current = shell;
+      length = shellLength;
+      if(shellLength + EXTRA_OVERHEAD + childLength <= limit) {
+        children.add(child);
+        length += childLength;
+      } else {
+        // too large on its own - split it further, keeping the style it inherits
+        for(final Component part : split(child, limit - shellLength - EXTRA_OVERHEAD)) {
+          parts.add(shell.children(Collections.singletonList(part)));
+        }
+      }
+    }
+    if(!children.isEmpty()) {
+      parts.add(current.children(children));
+    }
+    return parts;
+  }
+
+  /*
+   * Returns null if nothing of the component fits.
+   */
+  private static @Nullable Component truncate(final Component component, final int limit) {
+    if(measure(component, limit) <= limit) {
+      return component;
+    }
+    final Component head = component.children(Collections.emptyList());
+    int length = measure(head, limit);
+    if(length > limit) {
+      if(!(head instanceof TextComponent)) {
+        return null;
+      }
+      // find the longest prefix of the content which fits
+      final String content = ((TextComponent) head).content();
+      int low = 0;
+      int high = content.length();
+      while(low < high) {
+        final int mid = (low + high + 1) >>> 1;
+        if(measure(((TextComponent) head).content(prefix(content, mid)), limit) <= limit) {
+          low = mid;
+        } else {
+          high = mid - 1;
+        }
+      }
+      return ((TextComponent) head).content(prefix(content, low));
+    }
+    final List<Component> children = new ArrayList<>();
+    for(final Component child : component.children()) {
+      final int available = limit - length - EXTRA_OVERHEAD - children.size();
+      if(available <= 0) {
+        break;
+      }
+      final Component truncated = truncate(child, available);
+      if(truncated == null) {
+        break;
+      }
+      children.add(truncated);
+      length += measure(truncated, available);
+      if(truncated != child) {
+        break;
+      }
+    }
+    return children.isEmpty() ? head : head.children(children);
+  }
+
+  /*
+   * Each half of a surrogate pair counts two of the four bytes the pair is encoded as.
+   */
+  static int length(final CharSequence string, final int start, final int end) {
+    int length = end - start;
+    for(int i = start; i < end; i++) {
+      final char c = string.charAt(i);
+      if(c >= 0x800) {
+        length += Character.isSurrogate(c) ? 1 : 2;
+      } else if(c >= 0x80) {
+        length++;
+      }
+    }
+    return length;
+  }
+
+  /*
+   * Avoids splitting a surrogate pair.
+   */
+  private static String prefix(final String string, final int length) {
+    if(length > 0 && length < string.length() && Character.isHighSurrogate(string.charAt(length - 1))) {
+      return string.substring(0, length - 1);
+    }
+    return string.substring(0, length);
+  }
+
+  private static final class Counter implements Appendable {
+    private final int limit;
+    int length;
+
+    Counter(final int limit) {
+      this.limit = limit;
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq) throws IOException {
+      return csq == null ? this.count(4) : this.count(length(csq, 0, csq.length()));
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq, final int start, final int end) throws IOException {
+      return csq == null ? this.count(end - start) : this.count(length(csq, start, end));
+    }
+
+    @Override
+    public Appendable append(final char c) throws IOException {
+      return this.count(c >= 0x800 ? (Character.isSurrogate(c) ? 2 : 3) : (c >= 0x80 ? 2 : 1));
+    }
+
+    private Appendable count(final int length) {
+      this.length += length;
+      if(this.length > this.limit) {
+        throw LimitExceeded.INSTANCE;
+      }
+      return this;
+    }
+  }
+
+  private static final class LimitExceeded extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    static final LimitExceeded INSTANCE = new LimitExceeded();
+
+    private LimitExceeded() {
+      super(null, null, false, false);
+    }
+  }
+}
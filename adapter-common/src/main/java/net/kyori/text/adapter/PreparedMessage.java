@@ -0,0 +1,190 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import net.kyori.text.serializer.gson.GsonComponentSerializer;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A message compiled once into fixed serialized segments, with placeholders between them.
+ *
+ * <p>Rendering a prepared message splices the escaped placeholder values between the segments,
+ * without building or serializing a {@link Component}.</p>
+ *
+ * <pre>
+ *   PreparedMessage welcome = PreparedMessage.compile(TextComponent.builder("Welcome, ")
+ *     .append(PreparedMessage.placeholder("name"))
+ *     .append(TextComponent.of("!"))
+ *     .build());
+ *   String json = welcome.render("kashike");
+ * </pre>
+ */
+public final class PreparedMessage {
+  private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_\\-]+");
+  // private use characters, which are not escaped by the serializer - resource packs use them for custom glyphs,
+  // so a placeholder also starts with a random token, which literal text will not contain
+  private static final char START = '\ue000';
+  private static final char END = '\ue001';
+  private static final String OPEN = START + String.format("%016x", ThreadLocalRandom.current().nextLong());
+
+  private final String[] segments;
+  private final int[] slots;
+  private final List<String> placeholders;
+  private final int length;
+
+  private PreparedMessage(final String[] segments, final int[] slots, final List<String> placeholders) {
+    this.segments = segments;
+    this.slots = slots;
+    this.placeholders = placeholders;
+    int length = 0;
+    for(final String segment : segments) {
+      length += segment.length();
+    }
+    this.length = length;
+  }
+
+  /**
+   * Creates a placeholder component named {@code name}.
+   *
+   * <p>The placeholder is replaced with the value provided when rendering. The value
+   * inherits the style of the placeholder.</p>
+   *
+   * @param name the name, consisting of letters, digits, {@code _} and {@code -}
+   * @return the placeholder component
+   */
+  public static @NonNull Component placeholder(final @NonNull String name) {
+    if(!NAME.matcher(name).matches()) {
+      throw new IllegalArgumentException("Invalid placeholder name " + name);
+    }
+    return TextComponent.of(OPEN + name + END);
+  }
+
+  /**
+   * Compiles {@code component} into a prepared message.
+   *
+   * @param component the component, containing {@link #placeholder(String) placeholders}
+   * @return the prepared message
+   */
+  public static @NonNull PreparedMessage compile(final @NonNull Component component) {
+    final String json = GsonComponentSerializer.INSTANCE.serialize(ComponentOptimizer.apply(component));
+    final List<String> segments = new ArrayList<>();
+    final List<Integer> slots = new ArrayList<>();
+    final List<String> placeholders = new ArrayList<>();
+    int position = 0;
+    for(int start = json.indexOf(OPEN); start != -1; start = json.indexOf(OPEN, position)) {
+      final int end = json.indexOf(END, start + OPEN.length());
+      if(end == -1) {
+        throw new IllegalArgumentException("Unterminated placeholder in " + json);
+      }
+      final String name = json.substring(start + OPEN.length(), end);
+      int slot = placeholders.indexOf(name);
+      if(slot == -1) {
+        slot = placeholders.size();
+        placeholders.add(name);
+      }
+      segments.add(json.substring(position, start));
+      slots.add(slot);
+      position = end + 1;
+    }
+    segments.add(json.substring(position));
+    final int[] slotArray = new int[slots.size()];
+    for(int i = 0; i < slotArray.length; i++) {
+      slotArray[i] = slots.get(i);
+    }
+    return new PreparedMessage(segments.toArray(new String[0]), slotArray, Collections.unmodifiableList(placeholders));
+  }
+
+  /**
+   * Gets the names of the placeholders in this message, in the order values are expected by {@link #render(Object...)}.
+   *
+   * @return the placeholder names
+   */
+  public @NonNull List<String> placeholders() {
+    return this.placeholders;
+  }
+
+  /**
+   * Renders this message to its serialized form.
+   *
+   * @param values the values, in the order of {@link #placeholders()}
+   * @return the serialized message
+   */
+  public @NonNull String render(final @NonNull Object... values) {
+    if(values.length != this.placeholders.size()) {
+      throw new IllegalArgumentException("Expected " + this.placeholders.size() + " values, got " + values.length);
+    }
+    final String[] strings = new String[values.length];
+    int length = this.length;
+    for(int i = 0; i < values.length; i++) {
+      strings[i] = String.valueOf(values[i]);
+      length += strings[i].length();
+    }
+    final StringBuilder sb = new StringBuilder(length + 16);
+    sb.append(this.segments[0]);
+    for(int i = 0; i < this.slots.length; i++) {
+      escape(sb, strings[this.slots[i]]);
+      sb.append(this.segments[i + 1]);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Renders this message to its serialized form.
+   *
+   * @param values the values, keyed by placeholder name
+   * @return the serialized message
+   */
+  public @NonNull String render(final @NonNull Map<String, ?> values) {
+    final Object[] array = new Object[this.placeholders.size()];
+    for(int i = 0; i < array.length; i++) {
+      final String name = this.placeholders.get(i);
+      if(!values.containsKey(name)) {
+        throw new IllegalArgumentException("Missing value for placeholder " + name);
+      }
+      array[i] = values.get(name);
+    }
+    return this.render(array);
+  }
+
+  private static void escape(final StringBuilder sb, final String value) {
+    for(int i = 0, length = value.length(); i < length; i++) {
+      final char c = value.charAt(i);
+      if(c == '"' || c == '\\') {
+        sb.append('\\').append(c);
+      } else if(c < 0x20 || c == '\u2028' || c == '\u2029') {
+        sb.append(String.format("\\u%04x", (int) c));
+      } else {
+        sb.append(c);
+      }
+    }
+  }
+}
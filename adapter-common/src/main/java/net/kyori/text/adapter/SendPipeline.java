@@ -0,0 +1,128 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter;
+
+import com.google.common.collect.MapMaker;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Controls where the adapters write messages to each viewer.
+ *
+ * <p>By default messages are written on the sending thread. With an {@link #executor(Executor) executor}
+ * set, the message is still built once on the sending thread, and the write to each viewer is run on the
+ * executor. Writes to the same viewer run one at a time, in the order they were sent.</p>
+ */
+public interface SendPipeline {
+  /**
+   * Gets the executor which writes to viewers are run on.
+   *
+   * @return the executor, or {@code null} if writes run on the sending thread
+   */
+  static @Nullable Executor executor() {
+    return SendPipeline0.executor;
+  }
+
+  /**
+   * Sets the executor which writes to viewers are run on.
+   *
+   * @param executor the executor, or {@code null} to run writes on the sending thread
+   */
+  static void executor(final @Nullable Executor executor) {
+    SendPipeline0.executor = executor;
+  }
+
+  /**
+   * Creates an executor which runs each task on a new virtual thread.
+   *
+   * @return the executor, or {@code null} if the runtime does not support virtual threads
+   */
+  static @Nullable Executor virtualThreads() {
+    try {
+      return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch(final ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Runs {@code write} on the {@link #executor() executor}, after any earlier writes to {@code viewer}.
+   *
+   * <p>Runs {@code write} immediately if no executor is set.</p>
+   *
+   * @param viewer the viewer being written to
+   * @param write the write
+   */
+  static void dispatch(final @NonNull Object viewer, final @NonNull Runnable write) {
+    final Executor executor = SendPipeline0.executor;
+    if(executor == null) {
+      write.run();
+    } else {
+      SendPipeline0.LANES.computeIfAbsent(viewer, key -> new SendPipeline0.Lane()).submit(write, executor);
+    }
+  }
+}
+
+final class SendPipeline0 {
+  // keys are weak and compared by identity
+  static final ConcurrentMap<Object, Lane> LANES = new MapMaker().weakKeys().makeMap();
+  static volatile Executor executor;
+
+  /*
+   * Runs the writes to one viewer in order, without holding a lock or a thread while there are none.
+   */
+  static final class Lane implements Runnable {
+    private final Queue<Runnable> writes = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    void submit(final Runnable write, final Executor executor) {
+      this.writes.add(write);
+      if(this.scheduled.compareAndSet(false, true)) {
+        executor.execute(this);
+      }
+    }
+
+    @Override
+    public void run() {
+      do {
+        Runnable write;
+        while((write = this.writes.poll()) != null) {
+          try {
+            write.run();
+          } catch(final Throwable e) {
+            e.printStackTrace();
+          }
+        }
+        this.scheduled.set(false);
+        // a write may have been added after the queue was drained, but before the lane was unscheduled
+      } while(!this.writes.isEmpty() && this.scheduled.compareAndSet(false, true));
+    }
+  }
+}
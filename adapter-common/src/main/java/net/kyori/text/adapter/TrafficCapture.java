@@ -0,0 +1,241 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import net.kyori.text.Component;
+import net.kyori.text.serializer.gson.GsonComponentSerializer;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Captures the messages sent through the adapters to a memory-mapped, append-only log,
+ * which can be replayed with {@link TrafficReplay}.
+ *
+ * <p>Recording a message only queues it - serialization and writing happen on a
+ * background thread. Messages are dropped if the queue or the log is full.</p>
+ *
+ * <p>Each record consists of its length, the time since the capture started in nanoseconds,
+ * the {@link Channel channel}, the number of viewers, and the serialized component.</p>
+ */
+public final class TrafficCapture implements Closeable {
+  static final int MAGIC = 0x6b747263; // ktrc
+  static final int HEADER_SIZE = 4;
+  static final int RECORD_HEADER_SIZE = 4 + 8 + 1 + 4;
+  private static volatile TrafficCapture installed;
+
+  private final FileChannel file;
+  private final MappedByteBuffer buffer;
+  private final BlockingQueue<Entry> queue;
+  private final Thread writer;
+  private final long start = System.nanoTime();
+  private final LongAdder dropped = new LongAdder();
+  private volatile boolean open = true;
+
+  private TrafficCapture(final FileChannel file, final MappedByteBuffer buffer, final int queueSize) {
+    this.file = file;
+    this.buffer = buffer;
+    this.queue = new ArrayBlockingQueue<>(queueSize);
+    this.writer = new Thread(this::write, "text-traffic-capture");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /**
+   * Opens a capture writing to {@code path}, which is created or overwritten.
+   *
+   * @param path the path
+   * @param capacity the maximum size of the log, in bytes
+   * @return the capture
+   * @throws IOException if the log could not be opened
+   */
+  public static @NonNull TrafficCapture open(final @NonNull Path path, final int capacity) throws IOException {
+    if(capacity < HEADER_SIZE + RECORD_HEADER_SIZE) {
+      throw new IllegalArgumentException("capacity is too small");
+    }
+    final FileChannel file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    final MappedByteBuffer buffer = file.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    buffer.putInt(MAGIC);
+    return new TrafficCapture(file, buffer, 8192);
+  }
+
+  /**
+   * Installs {@code capture}, so that messages sent through the adapters are recorded to it.
+   *
+   * @param capture the capture
+   */
+  public static void install(final @NonNull TrafficCapture capture) {
+    installed = capture;
+  }
+
+  /**
+   * Stops recording messages sent through the adapters.
+   */
+  public static void uninstall() {
+    installed = null;
+  }
+
+  /**
+   * Checks if a capture is installed.
+   *
+   * <p>Callers may skip work which is only needed to record a message, such as counting its viewers.</p>
+   *
+   * @return {@code true} if a capture is installed
+   */
+  public static boolean installed() {
+    return installed != null;
+  }
+
+  /**
+   * Records {@code component} to the installed capture, if any.
+   *
+   * @param component the component
+   * @param channel the channel
+   * @param viewers the number of viewers
+   */
+  public static void record(final @NonNull Component component, final @NonNull Channel channel, final int viewers) {
+    final TrafficCapture capture = installed;
+    if(capture != null) {
+      capture.offer(new Entry(System.nanoTime(), component, channel, viewers));
+    }
+  }
+
+  /**
+   * Records the serialized component {@code json} to the installed capture, if any.
+   *
+   * @param json the serialized component
+   * @param channel the channel
+   * @param viewers the number of viewers
+   */
+  public static void record(final @NonNull String json, final @NonNull Channel channel, final int viewers) {
+    final TrafficCapture capture = installed;
+    if(capture != null) {
+      capture.offer(new Entry(System.nanoTime(), json, channel, viewers));
+    }
+  }
+
+  /**
+   * Gets the number of messages which were dropped because the queue or the log was full.
+   *
+   * @return the number of dropped messages
+   */
+  public long dropped() {
+    return this.dropped.sum();
+  }
+
+  private void offer(final Entry entry) {
+    if(!this.open || !this.queue.offer(entry)) {
+      this.dropped.increment();
+    }
+  }
+
+  private void write() {
+    try {
+      while(this.open || !this.queue.isEmpty()) {
+        final Entry entry = this.queue.poll(100, TimeUnit.MILLISECONDS);
+        if(entry != null) {
+          this.append(entry);
+        }
+      }
+    } catch(final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void append(final Entry entry) {
+    final String json = entry.message instanceof Component ? GsonComponentSerializer.INSTANCE.serialize((Component) entry.message) : (String) entry.message;
+    final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    final int length = RECORD_HEADER_SIZE + bytes.length;
+    if(this.buffer.remaining() < length) {
+      this.dropped.increment();
+      return;
+    }
+    this.buffer.putInt(length);
+    this.buffer.putLong(entry.time - this.start);
+    this.buffer.put((byte) entry.channel.ordinal());
+    this.buffer.putInt(entry.viewers);
+    this.buffer.put(bytes);
+  }
+
+  /**
+   * Stops recording, and writes any queued messages to the log.
+   *
+   * @throws IOException if the log could not be closed
+   */
+  @Override
+  public void close() throws IOException {
+    if(installed == this) {
+      installed = null;
+    }
+    this.open = false;
+    try {
+      this.writer.join();
+    } catch(final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    this.buffer.force();
+    this.file.close();
+  }
+
+  /**
+   * The channel a message was sent to.
+   */
+  public enum Channel {
+    /**
+     * A chat message.
+     */
+    CHAT,
+    /**
+     * A system message.
+     */
+    SYSTEM,
+    /**
+     * An action bar message.
+     */
+    ACTION_BAR;
+  }
+
+  private static final class Entry {
+    final long time;
+    final Object message;
+    final Channel channel;
+    final int viewers;
+
+    Entry(final long time, final Object message, final Channel channel, final int viewers) {
+      this.time = time;
+      this.message = message;
+      this.channel = channel;
+      this.viewers = viewers;
+    }
+  }
+}
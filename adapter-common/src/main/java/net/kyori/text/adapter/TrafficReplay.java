@@ -0,0 +1,163 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import net.kyori.text.Component;
+import net.kyori.text.serializer.gson.GsonComponentSerializer;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Replays a log written by {@link TrafficCapture}.
+ */
+public final class TrafficReplay {
+  private static final TrafficCapture.Channel[] CHANNELS = TrafficCapture.Channel.values();
+  private final ByteBuffer buffer;
+
+  private TrafficReplay(final ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  /**
+   * Opens the log at {@code path} for replay.
+   *
+   * @param path the path
+   * @return the replay
+   * @throws IOException if the log could not be read
+   */
+  public static @NonNull TrafficReplay open(final @NonNull Path path) throws IOException {
+    try(final FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+      final ByteBuffer buffer = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+      if(buffer.remaining() < TrafficCapture.HEADER_SIZE || buffer.getInt() != TrafficCapture.MAGIC) {
+        throw new IOException("Not a traffic capture: " + path);
+      }
+      return new TrafficReplay(buffer.slice());
+    }
+  }
+
+  /**
+   * Replays every record to {@code consumer}.
+   *
+   * <p>Records are replayed at the rate they were recorded, multiplied by {@code speed}.
+   * A speed of {@link Double#POSITIVE_INFINITY} replays records as fast as they can be consumed.</p>
+   *
+   * @param speed the speed
+   * @param consumer the consumer
+   * @throws InterruptedException if interrupted while waiting for the next record
+   */
+  public void replay(final double speed, final @NonNull Consumer<? super Record> consumer) throws InterruptedException {
+    if(!(speed > 0)) {
+      throw new IllegalArgumentException("speed must be positive");
+    }
+    final ByteBuffer buffer = this.buffer.duplicate();
+    final long start = System.nanoTime();
+    while(buffer.remaining() >= TrafficCapture.RECORD_HEADER_SIZE) {
+      final int length = buffer.getInt();
+      if(length == 0) {
+        break; // end of the log
+      }
+      final long time = buffer.getLong();
+      final TrafficCapture.Channel channel = CHANNELS[buffer.get()];
+      final int viewers = buffer.getInt();
+      final byte[] json = new byte[length - TrafficCapture.RECORD_HEADER_SIZE];
+      buffer.get(json);
+      if(speed != Double.POSITIVE_INFINITY) {
+        final long delay = (long) (time / speed) - (System.nanoTime() - start);
+        if(delay > 0) {
+          TimeUnit.NANOSECONDS.sleep(delay);
+        }
+      }
+      consumer.accept(new Record(time, channel, viewers, new String(json, StandardCharsets.UTF_8)));
+    }
+  }
+
+  /**
+   * A captured message.
+   */
+  public static final class Record {
+    private final long time;
+    private final TrafficCapture.Channel channel;
+    private final int viewers;
+    private final String json;
+
+    Record(final long time, final TrafficCapture.Channel channel, final int viewers, final String json) {
+      this.time = time;
+      this.channel = channel;
+      this.viewers = viewers;
+      this.json = json;
+    }
+
+    /**
+     * Gets the time the message was sent, in nanoseconds since the capture started.
+     *
+     * @return the time
+     */
+    public long time() {
+      return this.time;
+    }
+
+    /**
+     * Gets the channel the message was sent to.
+     *
+     * @return the channel
+     */
+    public TrafficCapture.@NonNull Channel channel() {
+      return this.channel;
+    }
+
+    /**
+     * Gets the number of viewers the message was sent to.
+     *
+     * @return the number of viewers
+     */
+    public int viewers() {
+      return this.viewers;
+    }
+
+    /**
+     * Gets the serialized component.
+     *
+     * @return the serialized component
+     */
+    public @NonNull String json() {
+      return this.json;
+    }
+
+    /**
+     * Deserializes the component.
+     *
+     * @return the component
+     */
+    public @NonNull Component component() {
+      return GsonComponentSerializer.INSTANCE.deserialize(this.json);
+    }
+  }
+}
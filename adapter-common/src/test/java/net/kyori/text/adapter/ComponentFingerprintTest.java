@@ -0,0 +1,119 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter;
+
+import java.util.HashSet;
+import java.util.Set;
+import net.kyori.text.Component;
+import net.kyori.text.KeybindComponent;
+import net.kyori.text.TextComponent;
+import net.kyori.text.TranslatableComponent;
+import net.kyori.text.event.ClickEvent;
+import net.kyori.text.event.HoverEvent;
+import net.kyori.text.format.TextColor;
+import net.kyori.text.format.TextDecoration;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ComponentFingerprintTest {
+  @Test
+  void testEqualComponents() {
+    final Component message = message("hello");
+    assertEquals(ComponentFingerprint.of(message), ComponentFingerprint.of(message("hello")));
+    // cached by instance
+    assertEquals(ComponentFingerprint.of(message), ComponentFingerprint.of(message));
+  }
+
+  @Test
+  void testContent() {
+    assertDifferent(TextComponent.of("hello"), TextComponent.of("hellp"));
+    assertDifferent(TextComponent.of("hello"), TextComponent.of("hello "));
+    // the same text, divided differently between children
+    assertDifferent(
+      TextComponent.builder("ab").append(TextComponent.of("c")).build(),
+      TextComponent.builder("a").append(TextComponent.of("bc")).build()
+    );
+  }
+
+  @Test
+  void testType() {
+    assertDifferent(TextComponent.of("key.jump"), KeybindComponent.of("key.jump"));
+    assertDifferent(TextComponent.of("chat.type.text"), TranslatableComponent.of("chat.type.text"));
+    assertDifferent(
+      TranslatableComponent.of("chat.type.text", TextComponent.of("a")),
+      TranslatableComponent.of("chat.type.text", TextComponent.of("b"))
+    );
+  }
+
+  @Test
+  void testStyle() {
+    final Component plain = TextComponent.of("hello");
+    assertDifferent(plain, TextComponent.of("hello", TextColor.RED));
+    assertDifferent(TextComponent.of("hello", TextColor.RED), TextComponent.of("hello", TextColor.DARK_RED));
+    assertDifferent(plain, plain.decoration(TextDecoration.BOLD, true));
+    assertDifferent(plain.decoration(TextDecoration.BOLD, true), plain.decoration(TextDecoration.BOLD, false));
+    assertDifferent(plain.decoration(TextDecoration.BOLD, true), plain.decoration(TextDecoration.ITALIC, true));
+    assertDifferent(plain, plain.clickEvent(ClickEvent.runCommand("/help")));
+    assertDifferent(plain.clickEvent(ClickEvent.runCommand("/help")), plain.clickEvent(ClickEvent.suggestCommand("/help")));
+    assertDifferent(plain.hoverEvent(HoverEvent.showText(TextComponent.of("a"))), plain.hoverEvent(HoverEvent.showText(TextComponent.of("b"))));
+    assertDifferent(plain, plain.insertion("hello"));
+  }
+
+  @Test
+  void testChildren() {
+    final Component a = TextComponent.of("a");
+    final Component b = TextComponent.of("b");
+    assertDifferent(
+      TextComponent.builder("").append(a).append(b).build(),
+      TextComponent.builder("").append(b).append(a).build()
+    );
+    // nested rather than siblings
+    assertDifferent(
+      TextComponent.builder("").append(a).append(b).build(),
+      TextComponent.builder("").append(a.append(b)).build()
+    );
+  }
+
+  @Test
+  void testDistinct() {
+    final Set<Long> fingerprints = new HashSet<>();
+    for(int i = 0; i < 100000; i++) {
+      fingerprints.add(ComponentFingerprint.of(message("player" + i)));
+    }
+    assertEquals(100000, fingerprints.size());
+  }
+
+  private static void assertDifferent(final Component a, final Component b) {
+    assertNotEquals(ComponentFingerprint.of(a), ComponentFingerprint.of(b), a + " and " + b);
+  }
+
+  private static Component message(final String name) {
+    return TextComponent.builder("Welcome, ", TextColor.GRAY)
+      .append(TextComponent.of(name, TextColor.GOLD).decoration(TextDecoration.BOLD, true))
+      .append(TextComponent.of("!"))
+      .build();
+  }
+}
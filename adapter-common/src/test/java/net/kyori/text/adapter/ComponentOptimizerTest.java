@@ -0,0 +1,160 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import net.kyori.text.event.ClickEvent;
+import net.kyori.text.format.Style;
+import net.kyori.text.format.TextColor;
+import net.kyori.text.format.TextDecoration;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ComponentOptimizerTest {
+  @Test
+  void testUnchanged() {
+    final Component component = TextComponent.of("hello", TextColor.RED);
+    assertSame(component, ComponentOptimizer.optimize(component));
+  }
+
+  @Test
+  void testMergeSiblings() {
+    final Component component = TextComponent.builder("")
+      .append(TextComponent.of("a", TextColor.RED))
+      .append(TextComponent.of("b", TextColor.RED))
+      .append(TextComponent.of("c", TextColor.BLUE))
+      .build();
+    final Component optimized = ComponentOptimizer.optimize(component);
+    assertEquals(2, optimized.children().size());
+    assertEquals("ab", ((TextComponent) optimized.children().get(0)).content());
+    assertRendersEqual(component, optimized);
+  }
+
+  @Test
+  void testFlattenNesting() {
+    final Component component = TextComponent.builder("")
+      .append(TextComponent.builder("").append(TextComponent.builder("").append(TextComponent.of("deep", TextColor.GOLD))))
+      .build();
+    final Component optimized = ComponentOptimizer.optimize(component);
+    assertEquals(TextComponent.of("deep", TextColor.GOLD), optimized);
+  }
+
+  @Test
+  void testPruneInheritedStyle() {
+    final ClickEvent click = ClickEvent.of(ClickEvent.Action.RUN_COMMAND, "/help");
+    final Component component = TextComponent.builder("parent", TextColor.GREEN)
+      .decoration(TextDecoration.BOLD, true)
+      .clickEvent(click)
+      .append(TextComponent.builder("child", TextColor.GREEN).decoration(TextDecoration.BOLD, true).clickEvent(click))
+      .append(TextComponent.of("other", TextColor.RED))
+      .build();
+    final Component optimized = ComponentOptimizer.optimize(component);
+    // the child's style is entirely inherited, so it joins the content
+    assertEquals("parentchild", ((TextComponent) optimized).content());
+    assertEquals(1, optimized.children().size());
+    assertEquals(TextColor.RED, optimized.children().get(0).color());
+    assertRendersEqual(component, optimized);
+  }
+
+  @Test
+  void testLeadingPlainTextJoinsContent() {
+    final Component component = TextComponent.builder("Hello, ")
+      .append(TextComponent.of("world"))
+      .append(TextComponent.of("!", TextColor.YELLOW))
+      .build();
+    final Component optimized = ComponentOptimizer.optimize(component);
+    assertEquals("Hello, world", ((TextComponent) optimized).content());
+    assertRendersEqual(component, optimized);
+  }
+
+  @Test
+  void testMeasure() {
+    final Component component = TextComponent.builder("")
+      .append(TextComponent.builder("").append(TextComponent.of("a", TextColor.RED)))
+      .append(TextComponent.of("b", TextColor.RED))
+      .build();
+    final ComponentOptimizer.Result result = ComponentOptimizer.measure(component);
+    assertTrue(result.saved() > 0);
+    assertEquals(result.originalSize() - result.optimizedSize(), result.saved());
+    assertRendersEqual(component, result.optimized());
+  }
+
+  @Test
+  void testApplyDisabled() {
+    final Component component = TextComponent.builder("").append(TextComponent.of("a")).build();
+    ComponentOptimizer.enabled(false);
+    assertSame(component, ComponentOptimizer.apply(component));
+  }
+
+  private static void assertRendersEqual(final Component expected, final Component actual) {
+    assertEquals(render(expected), render(actual));
+  }
+
+  /*
+   * Renders text components to runs of content, each prefixed with the style it is displayed with.
+   */
+  private static List<String> render(final Component component) {
+    final List<String> runs = new ArrayList<>();
+    final List<Style> styles = new ArrayList<>();
+    render(component, Style.empty(), runs, styles);
+    return runs;
+  }
+
+  private static void render(final Component component, final Style inherited, final List<String> runs, final List<Style> styles) {
+    Style style = component.style().colorIfAbsent(inherited.color());
+    for(final TextDecoration decoration : TextDecoration.values()) {
+      if(style.decoration(decoration) == TextDecoration.State.NOT_SET) {
+        style = style.decoration(decoration, inherited.decoration(decoration));
+      }
+    }
+    if(style.clickEvent() == null) {
+      style = style.clickEvent(inherited.clickEvent());
+    }
+    if(style.hoverEvent() == null) {
+      style = style.hoverEvent(inherited.hoverEvent());
+    }
+    if(style.insertion() == null) {
+      style = style.insertion(inherited.insertion());
+    }
+    final String content = ((TextComponent) component).content();
+    if(!content.isEmpty()) {
+      final int last = styles.size() - 1;
+      if(last >= 0 && styles.get(last).equals(style)) {
+        runs.set(last, runs.get(last) + content);
+      } else {
+        runs.add(style + ": " + content);
+        styles.add(style);
+      }
+    }
+    for(final Component child : component.children()) {
+      render(child, style, runs, styles);
+    }
+  }
+}
@@ -0,0 +1,251 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter;
+
+import com.google.common.base.Strings;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import net.kyori.text.format.TextColor;
+import net.kyori.text.serializer.gson.GsonComponentSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageBudgetTest {
+  private static final int LIMIT = 300;
+
+  @BeforeEach
+  void configure() {
+    MessageBudget.limit(LIMIT);
+  }
+
+  @AfterEach
+  void reset() {
+    MessageBudget.enabled(true);
+    MessageBudget.limit(MessageBudget.DEFAULT_LIMIT);
+    MessageBudget.policy(MessageBudget.Policy.SPLIT);
+    MessageBudget.callback(null);
+  }
+
+  @Test
+  void testMeasure() {
+    final Component component = TextComponent.of("hello", TextColor.RED);
+    final int length = GsonComponentSerializer.INSTANCE.serialize(component).length();
+    assertEquals(length, MessageBudget.measure(component, Integer.MAX_VALUE));
+    assertTrue(MessageBudget.measure(component, length - 1) > length - 1);
+  }
+
+  @Test
+  void testWithinLimit() {
+    final Component component = TextComponent.of("hello");
+    final List<Component> parts = MessageBudget.apply(component);
+    assertEquals(1, parts.size());
+    assertSame(component, parts.get(0));
+  }
+
+  @Test
+  void testSplitContent() {
+    final Component component = TextComponent.of(Strings.repeat("abcdefghij", 100), TextColor.RED);
+    final List<Component> parts = MessageBudget.apply(component);
+    assertTrue(parts.size() > 1);
+    assertFits(parts);
+    assertEquals(plain(component), plain(parts));
+    for(final Component part : parts) {
+      assertEquals(TextColor.RED, part.color());
+    }
+  }
+
+  @Test
+  void testSplitChildren() {
+    final TextComponent.Builder builder = TextComponent.builder("", TextColor.GRAY);
+    for(int i = 0; i < 50; i++) {
+      builder.append(TextComponent.of("child " + i + " "));
+    }
+    final Component component = builder.build();
+    final List<Component> parts = MessageBudget.apply(component);
+    assertTrue(parts.size() > 1);
+    assertFits(parts);
+    assertEquals(plain(component), plain(parts));
+    for(final Component part : parts) {
+      // every part keeps the style its children inherit
+      assertEquals(TextColor.GRAY, part.color());
+    }
+  }
+
+  @Test
+  void testSplitLargeHeadWithChildren() {
+    final Component component = TextComponent.builder(Strings.repeat("x", 500), TextColor.RED)
+      .append(TextComponent.of("a child"))
+      .append(TextComponent.of("another child"))
+      .build();
+    final List<Component> parts = MessageBudget.apply(component);
+    assertTrue(parts.size() > 1);
+    assertFits(parts);
+    assertEquals(plain(component), plain(parts));
+  }
+
+  @Test
+  void testSplitLargeChild() {
+    final Component component = TextComponent.builder("head ", TextColor.RED)
+      .append(TextComponent.of(Strings.repeat("y", 700), TextColor.BLUE))
+      .append(TextComponent.of(" tail"))
+      .build();
+    final List<Component> parts = MessageBudget.apply(component);
+    assertFits(parts);
+    assertEquals(plain(component), plain(parts));
+  }
+
+  @Test
+  void testTruncate() {
+    MessageBudget.policy(MessageBudget.Policy.TRUNCATE);
+    final Component component = TextComponent.builder("head ")
+      .append(TextComponent.of(Strings.repeat("z", 700)))
+      .build();
+    final List<Component> parts = MessageBudget.apply(component);
+    assertEquals(1, parts.size());
+    assertFits(parts);
+    final String plain = plain(parts);
+    assertTrue(plain(component).startsWith(plain));
+    assertTrue(plain.length() > LIMIT / 2);
+  }
+
+  @Test
+  void testMeasureMultiByte() {
+    final Component component = TextComponent.of("\u00e9\u4e16\ud83d\ude00", TextColor.RED);
+    final String json = GsonComponentSerializer.INSTANCE.serialize(component);
+    assertEquals(json.getBytes(StandardCharsets.UTF_8).length, MessageBudget.measure(component, Integer.MAX_VALUE));
+    assertEquals(json.getBytes(StandardCharsets.UTF_8).length, MessageBudget.length(json));
+  }
+
+  @Test
+  void testSplitMultiByte() {
+    // fewer characters than the limit, but three times as many bytes
+    final Component component = TextComponent.of(Strings.repeat("\u4e16", LIMIT - 50), TextColor.RED);
+    final List<Component> parts = MessageBudget.apply(component);
+    assertTrue(parts.size() > 1);
+    assertFits(parts);
+    assertEquals(plain(component), plain(parts));
+  }
+
+  @Test
+  void testSplitSurrogatePairs() {
+    final Component component = TextComponent.of(Strings.repeat("a\ud83d\ude00", LIMIT / 2));
+    final List<Component> parts = MessageBudget.apply(component);
+    assertFits(parts);
+    assertEquals(plain(component), plain(parts));
+    for(final Component part : parts) {
+      final String content = ((TextComponent) part).content();
+      assertTrue(!Character.isHighSurrogate(content.charAt(content.length() - 1)));
+    }
+  }
+
+  @Test
+  void testTruncateMultiByte() {
+    MessageBudget.policy(MessageBudget.Policy.TRUNCATE);
+    final Component component = TextComponent.of(Strings.repeat("\u00e9", LIMIT));
+    final List<Component> parts = MessageBudget.apply(component);
+    assertEquals(1, parts.size());
+    assertFits(parts);
+    // within a few bytes of the limit
+    final int length = GsonComponentSerializer.INSTANCE.serialize(parts.get(0)).getBytes(StandardCharsets.UTF_8).length;
+    assertTrue(length > LIMIT - 2, length + " bytes");
+  }
+
+  @Test
+  void testDrop() {
+    MessageBudget.policy(MessageBudget.Policy.DROP);
+    assertEquals(Collections.emptyList(), MessageBudget.apply(TextComponent.of(Strings.repeat("z", 700))));
+  }
+
+  @Test
+  void testDisabled() {
+    MessageBudget.enabled(false);
+    final Component component = TextComponent.of(Strings.repeat("z", 700));
+    assertEquals(Collections.singletonList(component), MessageBudget.apply(component));
+  }
+
+  @Test
+  void testCallback() {
+    final List<List<Component>> reported = new ArrayList<>();
+    MessageBudget.callback((component, policy, sent) -> {
+      assertEquals(MessageBudget.Policy.SPLIT, policy);
+      reported.add(sent);
+    });
+    final Component component = TextComponent.of(Strings.repeat("z", 700));
+    final List<Component> first = MessageBudget.apply(component);
+    // reported again when the result is cached
+    final List<Component> second = MessageBudget.apply(component);
+    assertSame(first, second);
+    assertEquals(2, reported.size());
+    assertEquals(first, reported.get(1));
+    MessageBudget.apply(TextComponent.of("fits"));
+    assertEquals(2, reported.size());
+  }
+
+  @Test
+  void testLimit() {
+    assertEquals(32767, MessageBudget.DEFAULT_LIMIT);
+    assertThrows(IllegalArgumentException.class, () -> MessageBudget.limit(10));
+  }
+
+  private static void assertFits(final List<Component> parts) {
+    for(final Component part : parts) {
+      final String json = GsonComponentSerializer.INSTANCE.serialize(part);
+      final int length = json.getBytes(StandardCharsets.UTF_8).length;
+      assertTrue(length <= LIMIT, length + " bytes exceeds the limit: " + json);
+    }
+  }
+
+  private static String plain(final List<Component> components) {
+    final StringBuilder sb = new StringBuilder();
+    for(final Component component : components) {
+      plain(component, sb);
+    }
+    return sb.toString();
+  }
+
+  private static String plain(final Component component) {
+    final StringBuilder sb = new StringBuilder();
+    plain(component, sb);
+    return sb.toString();
+  }
+
+  private static void plain(final Component component, final StringBuilder sb) {
+    if(component instanceof TextComponent) {
+      sb.append(((TextComponent) component).content());
+    }
+    for(final Component child : component.children()) {
+      plain(child, sb);
+    }
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Arrays;
+import java.util.Collections;
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import net.kyori.text.format.TextColor;
+import net.kyori.text.serializer.gson.GsonComponentSerializer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PreparedMessageTest {
+  @Test
+  void testRender() {
+    final PreparedMessage message = PreparedMessage.compile(TextComponent.builder("Welcome, ")
+      .append(PreparedMessage.placeholder("name"))
+      .append(TextComponent.of("! You have ", TextColor.GRAY))
+      .append(PreparedMessage.placeholder("coins"))
+      .append(TextComponent.of(" coins", TextColor.GRAY))
+      .build());
+    assertEquals(Arrays.asList("name", "coins"), message.placeholders());
+    final Component expected = ComponentOptimizer.apply(TextComponent.builder("Welcome, ")
+      .append(TextComponent.of("kashike"))
+      .append(TextComponent.of("! You have ", TextColor.GRAY))
+      .append(TextComponent.of("42"))
+      .append(TextComponent.of(" coins", TextColor.GRAY))
+      .build());
+    assertEquals(expected, deserialize(message.render("kashike", 42)));
+    assertEquals(expected, deserialize(message.render(ImmutableMap.of("name", "kashike", "coins", 42))));
+  }
+
+  @Test
+  void testRepeatedPlaceholder() {
+    final PreparedMessage message = PreparedMessage.compile(TextComponent.builder("")
+      .append(PreparedMessage.placeholder("name"))
+      .append(TextComponent.of(" and ", TextColor.RED))
+      .append(PreparedMessage.placeholder("name"))
+      .build());
+    assertEquals(Collections.singletonList("name"), message.placeholders());
+    assertEquals("kashike and kashike", plain(deserialize(message.render("kashike"))));
+  }
+
+  @Test
+  void testStyledPlaceholder() {
+    final PreparedMessage message = PreparedMessage.compile(TextComponent.builder("Hello ")
+      .append(PreparedMessage.placeholder("name").color(TextColor.GOLD))
+      .build());
+    final Component rendered = deserialize(message.render("kashike"));
+    assertEquals(TextComponent.of("kashike", TextColor.GOLD), rendered.children().get(0));
+  }
+
+  @Test
+  void testEscapesValues() {
+    final PreparedMessage message = PreparedMessage.compile(TextComponent.builder("say: ").append(PreparedMessage.placeholder("text")).build());
+    final String value = "\"quoted\" \\ back\nslash \u2028";
+    assertEquals("say: " + value, plain(deserialize(message.render(value))));
+  }
+
+  @Test
+  void testLiteralGlyphsAreNotPlaceholders() {
+    // resource packs map private use characters, which are also used to mark placeholders, to custom glyphs
+    final Component component = TextComponent.builder("\ue000heart\ue001 ")
+      .append(PreparedMessage.placeholder("name"))
+      .append(TextComponent.of(" \ue001\ue000", TextColor.RED))
+      .build();
+    final PreparedMessage message = PreparedMessage.compile(component);
+    assertEquals(Collections.singletonList("name"), message.placeholders());
+    assertEquals("\ue000heart\ue001 kashike \ue001\ue000", plain(deserialize(message.render("kashike"))));
+  }
+
+  @Test
+  void testWrongValueCount() {
+    final PreparedMessage message = PreparedMessage.compile(PreparedMessage.placeholder("name"));
+    assertThrows(IllegalArgumentException.class, () -> message.render());
+    assertThrows(IllegalArgumentException.class, () -> message.render(Collections.emptyMap()));
+  }
+
+  @Test
+  void testInvalidName() {
+    assertThrows(IllegalArgumentException.class, () -> PreparedMessage.placeholder("not valid"));
+  }
+
+  private static Component deserialize(final String json) {
+    return GsonComponentSerializer.INSTANCE.deserialize(json);
+  }
+
+  private static String plain(final Component component) {
+    final StringBuilder sb = new StringBuilder(((TextComponent) component).content());
+    for(final Component child : component.children()) {
+      sb.append(plain(child));
+    }
+    return sb.toString();
+  }
+}
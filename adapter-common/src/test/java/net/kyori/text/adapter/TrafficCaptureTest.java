@@ -0,0 +1,126 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import net.kyori.text.format.TextColor;
+import net.kyori.text.serializer.gson.GsonComponentSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrafficCaptureTest {
+  private Path path;
+
+  @BeforeEach
+  void create() throws IOException {
+    this.path = Files.createTempFile("traffic", ".ktrc");
+  }
+
+  @AfterEach
+  void delete() throws IOException {
+    TrafficCapture.uninstall();
+    Files.deleteIfExists(this.path);
+  }
+
+  @Test
+  void testReplay() throws IOException, InterruptedException {
+    final Component first = TextComponent.of("hello", TextColor.RED);
+    final String second = "{\"text\":\"world \\u00e9\"}";
+    try(final TrafficCapture capture = TrafficCapture.open(this.path, 4096)) {
+      TrafficCapture.install(capture);
+      TrafficCapture.record(first, TrafficCapture.Channel.CHAT, 3);
+      TrafficCapture.record(second, TrafficCapture.Channel.ACTION_BAR, 1);
+      assertEquals(0, capture.dropped());
+    }
+    final List<TrafficReplay.Record> records = replay();
+    assertEquals(2, records.size());
+    assertEquals(TrafficCapture.Channel.CHAT, records.get(0).channel());
+    assertEquals(3, records.get(0).viewers());
+    assertEquals(GsonComponentSerializer.INSTANCE.serialize(first), records.get(0).json());
+    assertEquals(first, records.get(0).component());
+    assertEquals(TrafficCapture.Channel.ACTION_BAR, records.get(1).channel());
+    assertEquals(1, records.get(1).viewers());
+    assertEquals(second, records.get(1).json());
+    assertTrue(records.get(0).time() <= records.get(1).time());
+  }
+
+  @Test
+  void testNotInstalled() throws IOException, InterruptedException {
+    try(final TrafficCapture capture = TrafficCapture.open(this.path, 4096)) {
+      TrafficCapture.record(TextComponent.of("hello"), TrafficCapture.Channel.CHAT, 1);
+      assertEquals(0, capture.dropped());
+    }
+    assertEquals(0, replay().size());
+  }
+
+  @Test
+  void testFull() throws IOException, InterruptedException {
+    final Component message = TextComponent.of("a message which does not fit twice");
+    final int size = TrafficCapture.HEADER_SIZE + TrafficCapture.RECORD_HEADER_SIZE + GsonComponentSerializer.INSTANCE.serialize(message).length();
+    final TrafficCapture capture = TrafficCapture.open(this.path, size + 1);
+    TrafficCapture.install(capture);
+    TrafficCapture.record(message, TrafficCapture.Channel.SYSTEM, 1);
+    TrafficCapture.record(message, TrafficCapture.Channel.SYSTEM, 1);
+    capture.close();
+    assertEquals(1, capture.dropped());
+    // recording after close is dropped
+    TrafficCapture.install(capture);
+    TrafficCapture.record(message, TrafficCapture.Channel.SYSTEM, 1);
+    assertEquals(2, capture.dropped());
+    final List<TrafficReplay.Record> records = replay();
+    assertEquals(1, records.size());
+    assertEquals(message, records.get(0).component());
+  }
+
+  @Test
+  void testNotACapture() throws IOException {
+    Files.write(this.path, new byte[]{1, 2, 3, 4, 5});
+    assertThrows(IOException.class, () -> TrafficReplay.open(this.path));
+  }
+
+  @Test
+  void testInvalidSpeed() throws IOException {
+    TrafficCapture.open(this.path, 64).close();
+    final TrafficReplay replay = TrafficReplay.open(this.path);
+    assertThrows(IllegalArgumentException.class, () -> replay.replay(0, record -> {}));
+    assertThrows(IllegalArgumentException.class, () -> replay.replay(Double.NaN, record -> {}));
+  }
+
+  private List<TrafficReplay.Record> replay() throws IOException, InterruptedException {
+    final List<TrafficReplay.Record> records = new ArrayList<>();
+    TrafficReplay.open(this.path).replay(Double.POSITIVE_INFINITY, records::add);
+    return records;
+  }
+}
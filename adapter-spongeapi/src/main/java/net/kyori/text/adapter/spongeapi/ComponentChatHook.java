@@ -0,0 +1,111 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter.spongeapi;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import net.kyori.text.Component;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.event.Listener;
+import org.spongepowered.api.event.Order;
+import org.spongepowered.api.event.message.MessageChannelEvent;
+import org.spongepowered.api.text.channel.MessageChannel;
+import org.spongepowered.api.text.chat.ChatType;
+import org.spongepowered.api.text.chat.ChatTypes;
+
+/**
+ * A listener which sends the messages of {@link MessageChannelEvent}s through
+ * {@link ComponentMessageChannel}s as text {@link Component}s.
+ *
+ * <p>Once the event has been handled by every other listener, its message is cancelled and
+ * sent through the event's channel instead. A component set with {@link #message(MessageChannelEvent, Component)}
+ * is sent without being converted to {@link org.spongepowered.api.text.Text} first.</p>
+ */
+public final class ComponentChatHook {
+  private static final Map<MessageChannelEvent, Component> MESSAGES = Collections.synchronizedMap(new WeakHashMap<>());
+
+  private ComponentChatHook() {
+  }
+
+  /**
+   * Registers the hook.
+   *
+   * @param plugin the plugin to register the hook for
+   * @return the hook
+   */
+  public static @NonNull ComponentChatHook register(final @NonNull Object plugin) {
+    final ComponentChatHook hook = new ComponentChatHook();
+    Sponge.getEventManager().registerListeners(plugin, hook);
+    return hook;
+  }
+
+  /**
+   * Sets the message of {@code event} to {@code component}.
+   *
+   * @param event the event
+   * @param component the message
+   */
+  public static void message(final @NonNull MessageChannelEvent event, final @NonNull Component component) {
+    MESSAGES.put(event, component);
+  }
+
+  /**
+   * Gets the message set for {@code event}.
+   *
+   * @param event the event
+   * @return the message, or {@code null} if no message was set
+   */
+  public static @Nullable Component message(final @NonNull MessageChannelEvent event) {
+    return MESSAGES.get(event);
+  }
+
+  /**
+   * Unregisters the hook.
+   */
+  public void close() {
+    Sponge.getEventManager().unregisterListeners(this);
+  }
+
+  @Listener(order = Order.LAST)
+  public void onMessage(final MessageChannelEvent event) {
+    final Component component = MESSAGES.remove(event);
+    if(event.isMessageCancelled()) {
+      return;
+    }
+    final MessageChannel channel = event.getChannel().orElse(null);
+    if(channel == null || (component == null && !(channel instanceof ComponentMessageChannel))) {
+      return;
+    }
+    event.setMessageCancelled(true);
+    final ChatType type = event instanceof MessageChannelEvent.Chat ? ChatTypes.CHAT : ChatTypes.SYSTEM;
+    if(channel instanceof ComponentMessageChannel) {
+      ((ComponentMessageChannel) channel).send(event.getSource(), component != null ? component : TextAdapter.fromSponge(event.getMessage()), type);
+    } else {
+      channel.send(event.getSource(), TextAdapter.toSponge(component), type);
+    }
+  }
+}
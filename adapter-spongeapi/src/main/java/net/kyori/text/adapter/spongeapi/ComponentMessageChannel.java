@@ -0,0 +1,116 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter.spongeapi;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import net.kyori.text.Component;
+import net.kyori.text.adapter.TrafficCapture;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.channel.ChatTypeMessageReceiver;
+import org.spongepowered.api.text.channel.MessageChannel;
+import org.spongepowered.api.text.channel.MessageReceiver;
+import org.spongepowered.api.text.chat.ChatType;
+
+/**
+ * A {@link MessageChannel} which transforms text {@link Component}s instead of {@link Text}.
+ *
+ * <p>Messages sent through the channel are converted to {@link Text} once per distinct
+ * transformed component, rather than once per member. {@link Text} sent through the
+ * channel is converted to a component once before it is transformed.</p>
+ */
+public interface ComponentMessageChannel extends MessageChannel {
+  /**
+   * Creates a channel with a fixed set of members.
+   *
+   * @param members the members
+   * @return the channel
+   */
+  static @NonNull ComponentMessageChannel fixed(final @NonNull Collection<? extends MessageReceiver> members) {
+    final Collection<MessageReceiver> copy = Collections.unmodifiableList(new ArrayList<>(members));
+    return () -> copy;
+  }
+
+  /**
+   * Transforms {@code original} for {@code recipient}.
+   *
+   * @param sender the sender of the message
+   * @param recipient the recipient
+   * @param original the original message
+   * @param type the type
+   * @return the message to send to the recipient, or empty to send nothing
+   */
+  default @NonNull Optional<Component> transformComponent(final @Nullable Object sender, final @NonNull MessageReceiver recipient, final @NonNull Component original, final @NonNull ChatType type) {
+    return Optional.of(original);
+  }
+
+  /**
+   * Sends {@code original} to the members of this channel.
+   *
+   * @param sender the sender of the message
+   * @param original the message
+   * @param type the type
+   */
+  default void send(final @Nullable Object sender, final @NonNull Component original, final @NonNull ChatType type) {
+    ComponentMessageChannel0.send(this, sender, original, type);
+  }
+
+  @Override
+  default void send(final @Nullable Object sender, final @NonNull Text original, final @NonNull ChatType type) {
+    this.send(sender, TextAdapter.fromSponge(original), type);
+  }
+
+  @Override
+  default @NonNull Optional<Text> transformMessage(final @Nullable Object sender, final @NonNull MessageReceiver recipient, final @NonNull Text original, final @NonNull ChatType type) {
+    return this.transformComponent(sender, recipient, TextAdapter.fromSponge(original), type).map(TextAdapter::toSponge);
+  }
+}
+
+final class ComponentMessageChannel0 {
+  static void send(final ComponentMessageChannel channel, final @Nullable Object sender, final Component original, final ChatType type) {
+    // transforms usually return one of a handful of results, so each is only converted once
+    final Map<Component, Text> converted = new HashMap<>();
+    int count = 0;
+    for(final MessageReceiver member : channel.getMembers()) {
+      final Component component = channel.transformComponent(sender, member, original, type).orElse(null);
+      if(component == null) {
+        continue;
+      }
+      final Text text = converted.computeIfAbsent(component, TextAdapter::toSponge);
+      if(member instanceof ChatTypeMessageReceiver) {
+        ((ChatTypeMessageReceiver) member).sendMessage(type, text);
+      } else {
+        member.sendMessage(text);
+      }
+      count++;
+    }
+    TrafficCapture.record(original, TextAdapter0.channel(type), count);
+  }
+}
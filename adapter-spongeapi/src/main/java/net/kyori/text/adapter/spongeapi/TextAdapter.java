@@ -24,10 +24,15 @@
 package net.kyori.text.adapter.spongeapi;
 
 import net.kyori.text.Component;
+import net.kyori.text.adapter.ComponentFingerprint;
+import net.kyori.text.adapter.ComponentOptimizer;
+import net.kyori.text.adapter.PreparedMessage;
+import net.kyori.text.adapter.TrafficCapture;
 import net.kyori.text.serializer.gson.GsonComponentSerializer;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.spongepowered.api.text.Text;
 import org.spongepowered.api.text.channel.ChatTypeMessageReceiver;
+import org.spongepowered.api.text.channel.MessageChannel;
 import org.spongepowered.api.text.channel.MessageReceiver;
 import org.spongepowered.api.text.chat.ChatType;
 import org.spongepowered.api.text.serializer.TextSerializers;
@@ -43,6 +48,7 @@ public interface TextAdapter {
    * @param component the component
    */
   static void sendMessage(final @NonNull MessageReceiver viewer, final @NonNull Component component) {
+    TrafficCapture.record(component, TrafficCapture.Channel.CHAT, 1);
     viewer.sendMessage(toSponge(component));
   }
 
@@ -54,9 +60,12 @@ public interface TextAdapter {
    */
   static void sendMessage(final @NonNull Iterable<? extends MessageReceiver> viewers, final @NonNull Component component) {
     final Text text = toSponge(component);
+    int count = 0;
     for(final MessageReceiver viewer : viewers) {
       viewer.sendMessage(text);
+      count++;
     }
+    TrafficCapture.record(component, TrafficCapture.Channel.CHAT, count);
   }
   /**
    * Sends {@code component} to the given {@code viewer}.
@@ -66,6 +75,7 @@ public interface TextAdapter {
    * @param type the type
    */
   static void sendMessage(final @NonNull ChatTypeMessageReceiver viewer, final @NonNull Component component, final @NonNull ChatType type) {
+    TrafficCapture.record(component, TextAdapter0.channel(type), 1);
     viewer.sendMessage(type, toSponge(component));
   }
 
@@ -78,9 +88,43 @@ public interface TextAdapter {
    */
   static void sendMessage(final @NonNull Iterable<? extends ChatTypeMessageReceiver> viewers, final @NonNull Component component, final @NonNull ChatType type) {
     final Text text = toSponge(component);
+    int count = 0;
     for(final ChatTypeMessageReceiver viewer : viewers) {
       viewer.sendMessage(type, text);
+      count++;
     }
+    TrafficCapture.record(component, TextAdapter0.channel(type), count);
+  }
+
+  /**
+   * Sends {@code message}, rendered with {@code values}, to the given {@code viewer}.
+   *
+   * @param viewer the viewer to send the message to
+   * @param message the message
+   * @param values the placeholder values
+   */
+  static void sendMessage(final @NonNull MessageReceiver viewer, final @NonNull PreparedMessage message, final @NonNull Object... values) {
+    final String json = message.render(values);
+    TrafficCapture.record(json, TrafficCapture.Channel.CHAT, 1);
+    viewer.sendMessage(TextSerializers.JSON.deserialize(json));
+  }
+
+  /**
+   * Sends {@code message}, rendered with {@code values}, to the given {@code viewers}.
+   *
+   * @param viewers the viewers to send the message to
+   * @param message the message
+   * @param values the placeholder values
+   */
+  static void sendMessage(final @NonNull Iterable<? extends MessageReceiver> viewers, final @NonNull PreparedMessage message, final @NonNull Object... values) {
+    final String json = message.render(values);
+    final Text text = TextSerializers.JSON.deserialize(json);
+    int count = 0;
+    for(final MessageReceiver viewer : viewers) {
+      viewer.sendMessage(text);
+      count++;
+    }
+    TrafficCapture.record(json, TrafficCapture.Channel.CHAT, count);
   }
 
   /**
@@ -145,6 +189,44 @@ public interface TextAdapter {
    * @return the Text representation of the component
    */
   static @NonNull Text toSponge(final @NonNull Component component) {
-    return TextSerializers.JSON.deserialize(GsonComponentSerializer.INSTANCE.serialize(component));
+    final long fingerprint = ComponentFingerprint.of(component);
+    Text text = TextAdapter0.TEXT.getIfPresent(fingerprint);
+    if(text == null) {
+      text = TextSerializers.JSON.deserialize(GsonComponentSerializer.INSTANCE.serialize(ComponentOptimizer.apply(component)));
+      TextAdapter0.TEXT.put(fingerprint, text);
+    }
+    return text;
+  }
+
+  /**
+   * Converts {@code text} from the {@link Text} format used by Sponge.
+   *
+   * @param text the text
+   * @return the component representation of the text
+   */
+  static @NonNull Component fromSponge(final @NonNull Text text) {
+    return GsonComponentSerializer.INSTANCE.deserialize(TextSerializers.JSON.serialize(text));
+  }
+
+  /**
+   * Sends {@code component} through {@code channel}.
+   *
+   * <p>If the channel is a {@link ComponentMessageChannel} the component is transformed
+   * without being converted to {@link Text} first.</p>
+   *
+   * @param channel the channel to send the component through
+   * @param component the component
+   * @param type the type
+   */
+  static void sendMessage(final @NonNull MessageChannel channel, final @NonNull Component component, final @NonNull ChatType type) {
+    if(channel instanceof ComponentMessageChannel) {
+      ((ComponentMessageChannel) channel).send(null, component, type);
+    } else {
+      if(TrafficCapture.installed()) {
+        // channels may compute their members on each call, so they are only counted when captured
+        TrafficCapture.record(component, TextAdapter0.channel(type), channel.getMembers().size());
+      }
+      channel.send(toSponge(component), type);
+    }
   }
 }
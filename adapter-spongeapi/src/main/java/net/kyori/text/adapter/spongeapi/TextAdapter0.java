@@ -0,0 +1,47 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter.spongeapi;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import net.kyori.text.adapter.TrafficCapture;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.chat.ChatType;
+import org.spongepowered.api.text.chat.ChatTypes;
+
+final class TextAdapter0 {
+  // Text is immutable, so equal components can share a conversion
+  static final Cache<Long, Text> TEXT = CacheBuilder.newBuilder()
+    .maximumSize(1024)
+    .build();
+
+  static TrafficCapture.Channel channel(final ChatType type) {
+    if(type == ChatTypes.ACTION_BAR) {
+      return TrafficCapture.Channel.ACTION_BAR;
+    } else if(type == ChatTypes.SYSTEM) {
+      return TrafficCapture.Channel.SYSTEM;
+    }
+    return TrafficCapture.Channel.CHAT;
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package net.kyori.text.adapter.spongeapi;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import net.kyori.text.adapter.TrafficCapture;
+import net.kyori.text.adapter.TrafficReplay;
+import net.kyori.text.serializer.gson.GsonComponentSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.channel.MessageChannel;
+import org.spongepowered.api.text.channel.MessageReceiver;
+import org.spongepowered.api.text.chat.ChatType;
+import org.spongepowered.api.text.chat.ChatTypes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TrafficCaptureHookTest {
+  private static final Component MESSAGE = TextComponent.of("captured");
+  private final List<Text> received = new ArrayList<>();
+  private final MessageReceiver receiver = this.received::add;
+  private Path path;
+
+  @BeforeEach
+  void create() throws IOException {
+    this.path = Files.createTempFile("traffic", ".ktrc");
+  }
+
+  @AfterEach
+  void delete() throws IOException {
+    TrafficCapture.uninstall();
+    Files.deleteIfExists(this.path);
+  }
+
+  @Test
+  void testChannel() throws IOException, InterruptedException {
+    final CountingChannel channel = new CountingChannel(this.receiver, this.receiver);
+    try(final TrafficCapture capture = TrafficCapture.open(this.path, 4096)) {
+      TrafficCapture.install(capture);
+      TextAdapter.sendMessage(channel, MESSAGE, ChatTypes.ACTION_BAR);
+    }
+    assertEquals(2, this.received.size());
+    final List<TrafficReplay.Record> records = this.replay();
+    assertEquals(1, records.size());
+    assertEquals(TrafficCapture.Channel.ACTION_BAR, records.get(0).channel());
+    assertEquals(2, records.get(0).viewers());
+    assertEquals(GsonComponentSerializer.INSTANCE.serialize(MESSAGE), records.get(0).json());
+  }
+
+  @Test
+  void testChannelNotCaptured() {
+    final CountingChannel channel = new CountingChannel(this.receiver, this.receiver);
+    TextAdapter.sendMessage(channel, MESSAGE, ChatTypes.CHAT);
+    assertEquals(2, this.received.size());
+    // only the send itself asks for the members
+    assertEquals(1, channel.calls);
+  }
+
+  @Test
+  void testComponentChannel() throws IOException, InterruptedException {
+    // the second receiver is filtered out by the transform
+    final MessageReceiver filtered = this.received::add;
+    final ComponentMessageChannel channel = new ComponentMessageChannel() {
+      @Override
+      public Collection<MessageReceiver> getMembers() {
+        return Arrays.asList(TrafficCaptureHookTest.this.receiver, filtered);
+      }
+
+      @Override
+      public Optional<Component> transformComponent(final Object sender, final MessageReceiver recipient, final Component original, final ChatType type) {
+        return recipient == filtered ? Optional.empty() : Optional.of(original);
+      }
+    };
+    try(final TrafficCapture capture = TrafficCapture.open(this.path, 4096)) {
+      TrafficCapture.install(capture);
+      TextAdapter.sendMessage(channel, MESSAGE, ChatTypes.SYSTEM);
+    }
+    assertEquals(1, this.received.size());
+    final List<TrafficReplay.Record> records = this.replay();
+    assertEquals(1, records.size());
+    assertEquals(TrafficCapture.Channel.SYSTEM, records.get(0).channel());
+    assertEquals(1, records.get(0).viewers());
+    assertEquals(MESSAGE, records.get(0).component());
+  }
+
+  @Test
+  void testReceivers() throws IOException, InterruptedException {
+    try(final TrafficCapture capture = TrafficCapture.open(this.path, 4096)) {
+      TrafficCapture.install(capture);
+      TextAdapter.sendMessage(Arrays.asList(this.receiver, this.receiver, this.receiver), MESSAGE);
+    }
+    final List<TrafficReplay.Record> records = this.replay();
+    assertEquals(1, records.size());
+    assertEquals(TrafficCapture.Channel.CHAT, records.get(0).channel());
+    assertEquals(3, records.get(0).viewers());
+  }
+
+  private List<TrafficReplay.Record> replay() throws IOException, InterruptedException {
+    final List<TrafficReplay.Record> records = new ArrayList<>();
+    TrafficReplay.open(this.path).replay(Double.POSITIVE_INFINITY, records::add);
+    return records;
+  }
+
+  /*
+   * A channel which counts how often its members are asked for.
+   */
+  private static final class CountingChannel implements MessageChannel {
+    private final List<MessageReceiver> members;
+    int calls;
+
+    CountingChannel(final MessageReceiver... members) {
+      this.members = Arrays.asList(members);
+    }
+
+    @Override
+    public Collection<MessageReceiver> getMembers() {
+      this.calls++;
+      return this.members;
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * This file is part of text-extras, licensed under the MIT License.
+ *
+ * Copyright (c) 2018 KyoriPowered
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.spongepowered.api.text.channel;
+
+import java.util.Collection;
+import java.util.Optional;
+import org.spongepowered.api.text.Text;
+import org.spongepowered.api.text.chat.ChatType;
+
+/**
+ * A stand-in for Sponge's message channel, which sends each member their transformed message.
+ */
+public interface MessageChannel {
+  Collection<MessageReceiver> getMembers();
+
+  default Optional<Text> transformMessage(final Object sender, final MessageReceiver recipient, final Text original, final ChatType type) {
+    return Optional.of(original);
+  }
+
+  default void send(final Text original, final ChatType type) {
+    this.send(null, original, type);
+  }
+
+  default void send(final Object sender, final Text original, final ChatType type) {
+    for(final MessageReceiver member : this.getMembers()) {
+      this.transformMessage(sender, member, original, type).ifPresent(member::sendMessage);
+    }
+  }
+}